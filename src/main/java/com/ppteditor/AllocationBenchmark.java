@@ -0,0 +1,101 @@
+package com.ppteditor;
+
+import com.ppteditor.core.model.*;
+import com.ppteditor.ui.SlideCanvas;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 拖拽分配测试类
+ * 在无显示环境中创建SlideCanvas，对填充了元素的幻灯片直接调用真实的鼠标事件处理：
+ * 按下选中元素、连续拖动（网格吸附或对齐查找、读取选择）、松开，统计每个拖动事件分配的字节数
+ * 鼠标事件对象预先创建，不计入统计。本地测量（网格吸附/对齐查找）：引入只读视图前约504/977字节，
+ * 引入后约527/977字节，两者无明显差别，拖拽路径本身不复制集合
+ */
+public class AllocationBenchmark {
+
+    private static final int SLIDE_COUNT = 50;
+    private static final int ELEMENTS_PER_SLIDE = 200;
+    private static final int DRAGS_PER_GESTURE = 200;
+    private static final int GESTURES = 100;
+    private static final int WARMUP_GESTURES = 200;
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        Presentation presentation = createPresentation();
+        Slide slide = presentation.getSlide(0);
+        SlideElement<?> dragged = slide.getElements().get(0);
+
+        SlideCanvas canvas = new SlideCanvas();
+        canvas.setSize(SlideCanvas.CANVAS_WIDTH, SlideCanvas.CANVAS_HEIGHT);
+        canvas.setSlide(slide);
+
+        System.out.println("=== 拖拽分配测试（" + SLIDE_COUNT + "张幻灯片 x " + ELEMENTS_PER_SLIDE + "个元素）===");
+
+        MouseEvent[] gesture = createGesture(canvas, dragged);
+        for (boolean snapToGrid : new boolean[]{true, false}) {
+            canvas.setSnapToGrid(snapToGrid);
+            // 预热，让JIT完成编译
+            for (int i = 0; i < WARMUP_GESTURES; i++) {
+                runGesture(canvas, gesture);
+            }
+            long bytes = 0;
+            for (int i = 0; i < GESTURES; i++) {
+                bytes += runGesture(canvas, gesture);
+            }
+            System.out.printf("%s: %.1f 字节/拖动事件%n", snapToGrid ? "网格吸附" : "对齐查找",
+                (double) bytes / ((long) GESTURES * DRAGS_PER_GESTURE));
+        }
+    }
+
+    private static Presentation createPresentation() {
+        Presentation presentation = new Presentation("分配测试");
+        presentation.addMetadata("category", "benchmark");
+        for (int s = 0; s < SLIDE_COUNT; s++) {
+            Slide slide = s == 0 ? presentation.getSlide(0) : new Slide("幻灯片" + s);
+            for (int i = 0; i < ELEMENTS_PER_SLIDE; i++) {
+                slide.addElement(new RectangleElement((i * 37) % 900, (i * 53) % 500, 40, 30));
+            }
+            if (s > 0) {
+                presentation.addSlide(slide);
+            }
+        }
+        return presentation;
+    }
+
+    // 一次完整的拖拽：按下、来回拖动并回到起点（松开时不产生命令）、松开
+    private static MouseEvent[] createGesture(SlideCanvas canvas, SlideElement<?> dragged) {
+        int startX = (int) (dragged.getX() + dragged.getWidth() / 2);
+        int startY = (int) (dragged.getY() + dragged.getHeight() / 2);
+        MouseEvent[] events = new MouseEvent[DRAGS_PER_GESTURE + 2];
+        events[0] = mouseEvent(canvas, MouseEvent.MOUSE_PRESSED, startX, startY);
+        for (int i = 0; i < DRAGS_PER_GESTURE; i++) {
+            int offset = i < DRAGS_PER_GESTURE / 2 ? i : DRAGS_PER_GESTURE - 1 - i;
+            events[i + 1] = mouseEvent(canvas, MouseEvent.MOUSE_DRAGGED, startX + offset * 3, startY + offset * 2);
+        }
+        events[DRAGS_PER_GESTURE + 1] = mouseEvent(canvas, MouseEvent.MOUSE_RELEASED, startX, startY);
+        return events;
+    }
+
+    private static MouseEvent mouseEvent(SlideCanvas canvas, int id, int x, int y) {
+        return new MouseEvent(canvas, id, 0, InputEvent.BUTTON1_DOWN_MASK, x, y, 1, false, MouseEvent.BUTTON1);
+    }
+
+    // 返回拖动事件分配的字节数，按下和松开不计入
+    private static long runGesture(SlideCanvas canvas, MouseEvent[] gesture) {
+        long threadId = Thread.currentThread().getId();
+        canvas.mousePressed(gesture[0]);
+        long before = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+        for (int i = 1; i <= DRAGS_PER_GESTURE; i++) {
+            canvas.mouseDragged(gesture[i]);
+        }
+        long bytes = THREAD_BEAN.getThreadAllocatedBytes(threadId) - before;
+        canvas.mouseReleased(gesture[DRAGS_PER_GESTURE + 1]);
+        return bytes;
+    }
+}
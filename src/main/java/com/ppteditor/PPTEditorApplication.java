@@ -1,6 +1,5 @@
 package com.ppteditor;
 
-import com.ppteditor.core.command.CommandManager;
 import com.ppteditor.core.model.*;
 import com.ppteditor.ui.MainWindow;
 
@@ -14,6 +13,9 @@ import java.awt.*;
 public class PPTEditorApplication {
     
     public static void main(String[] args) {
+        // 后台预热字体注册表
+        FontRegistry.getInstance().warmUpAsync();
+        
         // 设置系统外观
         setLookAndFeel();
         
@@ -36,10 +38,6 @@ public class PPTEditorApplication {
     }
     
     private void initialize() {
-        // 初始化命令管理器
-        CommandManager commandManager = CommandManager.getInstance();
-        commandManager.setStatusCallback(this::onStatusChanged);
-        
         // 创建默认演示文稿
         createDefaultPresentation();
         
@@ -97,21 +95,18 @@ public class PPTEditorApplication {
         System.out.println("默认演示文稿创建完成");
     }
     
-    private void onStatusChanged(String status) {
-        System.out.println("[状态] " + status);
-    }
-    
     private static void setLookAndFeel() {
         try {
             // 尝试使用系统外观
             // UIManager.setLookAndFeel(UIManager.getSystemLookAndFeel());
             
             // 设置一些UI属性
-            UIManager.put("Button.font", new Font("微软雅黑", Font.PLAIN, 12));
-            UIManager.put("Label.font", new Font("微软雅黑", Font.PLAIN, 12));
-            UIManager.put("Menu.font", new Font("微软雅黑", Font.PLAIN, 12));
-            UIManager.put("MenuItem.font", new Font("微软雅黑", Font.PLAIN, 12));
-            UIManager.put("TextField.font", new Font("微软雅黑", Font.PLAIN, 12));
+            Font uiFont = FontRegistry.getInstance().getFont("微软雅黑", Font.PLAIN, 12);
+            UIManager.put("Button.font", uiFont);
+            UIManager.put("Label.font", uiFont);
+            UIManager.put("Menu.font", uiFont);
+            UIManager.put("MenuItem.font", uiFont);
+            UIManager.put("TextField.font", uiFont);
             
         } catch (Exception e) {
             System.err.println("无法设置系统外观，使用默认外观: " + e.getMessage());
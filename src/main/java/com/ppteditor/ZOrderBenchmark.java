@@ -0,0 +1,170 @@
+package com.ppteditor;
+
+import com.ppteditor.core.model.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * z-order性能测试类
+ * 对比排序方式（旧实现）与增量维护z-order（新实现）在1000个元素幻灯片上的绘制和悬停开销
+ * 两种实现交替计时并取中位数。本地测量：绘制约30.5 ms/帧，两者无明显差别（绘制以元素本身的渲染为主）；
+ * 悬停约12-14 µs/次降到0.6 µs/次
+ */
+public class ZOrderBenchmark {
+
+    private static final int ELEMENT_COUNT = 1000;
+    private static final int PAINT_ROUNDS = 50;
+    private static final int HOVER_ROUNDS = 20000;
+    private static final int WARMUP_ROUNDS = 40;
+    private static final int HOVER_BATCHES = 20;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        Slide slide = createSlide(ELEMENT_COUNT);
+        BufferedImage canvas = new BufferedImage(SlideMaster.STANDARD_WIDTH, SlideMaster.STANDARD_HEIGHT,
+                                                 BufferedImage.TYPE_INT_ARGB);
+        Dimension slideSize = new Dimension(SlideMaster.STANDARD_WIDTH, SlideMaster.STANDARD_HEIGHT);
+        Point[] hoverPoints = createHoverPoints(HOVER_ROUNDS);
+
+        System.out.println("=== z-order性能测试（" + ELEMENT_COUNT + "个元素）===");
+
+        // 预热：两种实现交替执行，都完成JIT编译后再计时
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            paintLegacy(slide, canvas, slideSize);
+            paintCurrent(slide, canvas, slideSize);
+            timeHover(point -> hoverLegacy(slide, point), hoverPoints);
+            timeHover(slide::findTopElementAt, hoverPoints);
+        }
+
+        // 逐帧交替计时，每轮交换先后顺序，消除执行顺序带来的偏差，取中位数
+        long[] legacyPaint = new long[PAINT_ROUNDS];
+        long[] currentPaint = new long[PAINT_ROUNDS];
+        for (int i = 0; i < PAINT_ROUNDS; i++) {
+            if (i % 2 == 0) {
+                legacyPaint[i] = timePaint(() -> paintLegacy(slide, canvas, slideSize));
+                currentPaint[i] = timePaint(() -> paintCurrent(slide, canvas, slideSize));
+            } else {
+                currentPaint[i] = timePaint(() -> paintCurrent(slide, canvas, slideSize));
+                legacyPaint[i] = timePaint(() -> paintLegacy(slide, canvas, slideSize));
+            }
+        }
+        System.out.printf("绘制 - 排序方式: %.3f ms/帧, 增量方式: %.3f ms/帧%n",
+            median(legacyPaint) / 1e6, median(currentPaint) / 1e6);
+
+        long[] legacyHover = new long[HOVER_BATCHES];
+        long[] currentHover = new long[HOVER_BATCHES];
+        for (int i = 0; i < HOVER_BATCHES; i++) {
+            if (i % 2 == 0) {
+                legacyHover[i] = timeHover(point -> hoverLegacy(slide, point), hoverPoints);
+                currentHover[i] = timeHover(slide::findTopElementAt, hoverPoints);
+            } else {
+                currentHover[i] = timeHover(slide::findTopElementAt, hoverPoints);
+                legacyHover[i] = timeHover(point -> hoverLegacy(slide, point), hoverPoints);
+            }
+        }
+        System.out.printf("悬停 - 排序方式: %.2f µs/次, 增量方式: %.2f µs/次%n",
+            median(legacyHover) / 1e3 / HOVER_ROUNDS, median(currentHover) / 1e3 / HOVER_ROUNDS);
+
+        // 层级操作
+        List<SlideElement<?>> elements = slide.getElements();
+        long start = System.nanoTime();
+        for (int i = 0; i < HOVER_ROUNDS; i++) {
+            SlideElement<?> element = elements.get(i % elements.size());
+            slide.bringForward(element);
+            slide.sendBackward(element);
+        }
+        long layerTime = System.nanoTime() - start;
+        System.out.printf("上移/下移一层: %.2f µs/次%n", layerTime / 1e3 / (HOVER_ROUNDS * 2));
+    }
+
+    private static Slide createSlide(int count) {
+        Slide slide = new Slide("性能测试");
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            double x = random.nextInt(SlideMaster.STANDARD_WIDTH - 100);
+            double y = random.nextInt(SlideMaster.STANDARD_HEIGHT - 60);
+            SlideElement<?> element;
+            switch (i % 3) {
+                case 0:
+                    element = new RectangleElement(x, y, 40 + random.nextInt(60), 20 + random.nextInt(40));
+                    break;
+                case 1:
+                    element = new EllipseElement(x, y, 40 + random.nextInt(60), 20 + random.nextInt(40));
+                    break;
+                default:
+                    element = new TextElement("文本" + i);
+                    element.setPosition(x, y);
+                    break;
+            }
+            slide.addElement(element);
+        }
+        return slide;
+    }
+
+    private static Point[] createHoverPoints(int count) {
+        Random random = new Random(7);
+        Point[] points = new Point[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = new Point(random.nextInt(SlideMaster.STANDARD_WIDTH), random.nextInt(SlideMaster.STANDARD_HEIGHT));
+        }
+        return points;
+    }
+
+    private static long timePaint(Runnable paint) {
+        long start = System.nanoTime();
+        paint.run();
+        return System.nanoTime() - start;
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static long timeHover(java.util.function.Function<Point, SlideElement<?>> hover, Point[] points) {
+        long start = System.nanoTime();
+        int hits = 0;
+        for (Point point : points) {
+            if (hover.apply(point) != null) hits++;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (hits < 0) System.out.println(hits); // 防止被优化
+        return elapsed;
+    }
+
+    // 旧实现：每次绘制都按z-index排序
+    private static void paintLegacy(Slide slide, BufferedImage canvas, Dimension slideSize) {
+        Graphics2D g2d = canvas.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        slide.renderBackground(g2d, slideSize);
+        Rectangle clip = g2d.getClipBounds();
+        slide.getElements().stream()
+                .sorted(Comparator.comparingInt(SlideElement::getZIndex))
+                .filter(element -> clip == null || clip.intersects(element.getRenderBounds()))
+                .forEach(element -> element.draw(g2d));
+        g2d.dispose();
+    }
+
+    private static void paintCurrent(Slide slide, BufferedImage canvas, Dimension slideSize) {
+        Graphics2D g2d = canvas.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        slide.render(g2d, slideSize);
+        g2d.dispose();
+    }
+
+    // 旧实现：每次悬停都过滤、排序并收集结果后取第一个
+    private static SlideElement<?> hoverLegacy(Slide slide, Point point) {
+        List<SlideElement<?>> hits = slide.getElements().stream()
+                .filter(element -> element.contains(point))
+                .sorted((e1, e2) -> Integer.compare(e2.getZIndex(), e1.getZIndex()))
+                .collect(Collectors.toList());
+        return hits.isEmpty() ? null : hits.get(0);
+    }
+}
@@ -2,12 +2,13 @@ package com.ppteditor.core.command;
 
 import com.ppteditor.core.model.Slide;
 import com.ppteditor.core.model.SlideElement;
+import java.io.IOException;
 
 /**
  * 添加元素命令
  * 实现向幻灯片添加元素的可撤销操作
  */
-public class AddElementCommand implements Command {
+public class AddElementCommand implements JournaledCommand {
     
     private final Slide slide;
     private final java.util.List<SlideElement<?>> elements;
@@ -48,6 +49,20 @@ public class AddElementCommand implements Command {
         return description;
     }
     
+    /**
+     * 不在幻灯片中的元素只被本命令引用，计入其完整大小
+     */
+    @Override
+    public long estimateRetainedBytes() {
+        long bytes = 64 + elements.size() * 8L;
+        for (SlideElement<?> element : elements) {
+            if (slide == null || !slide.containsElement(element)) {
+                bytes += element.estimateMemoryBytes();
+            }
+        }
+        return bytes;
+    }
+    
     public Slide getSlide() {
         return slide;
     }
@@ -55,4 +70,28 @@ public class AddElementCommand implements Command {
     public java.util.List<SlideElement<?>> getElements() {
         return elements;
     }
-} 
\ No newline at end of file
+    
+    @Override
+    public byte getJournalType() {
+        return CommandJournal.ADD_ELEMENTS;
+    }
+    
+    @Override
+    public void writeTo(CommandJournal.Output out) throws IOException {
+        out.writeSlide(slide);
+        out.writeInt(elements.size());
+        for (SlideElement<?> element : elements) {
+            out.writeElement(element);
+        }
+    }
+    
+    static AddElementCommand readFrom(CommandJournal.Input in) throws IOException {
+        Slide slide = in.readSlide();
+        int count = in.readInt();
+        java.util.List<SlideElement<?>> elements = new java.util.ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            elements.add(in.readElement());
+        }
+        return new AddElementCommand(slide, elements);
+    }
+}
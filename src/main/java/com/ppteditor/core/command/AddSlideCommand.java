@@ -2,12 +2,13 @@ package com.ppteditor.core.command;
 
 import com.ppteditor.core.model.Presentation;
 import com.ppteditor.core.model.Slide;
+import java.io.IOException;
 
 /**
  * 添加幻灯片命令
  * 实现向演示文档添加新幻灯片的可撤销操作
  */
-public class AddSlideCommand implements Command {
+public class AddSlideCommand implements JournaledCommand {
     
     private final Presentation presentation;
     private final Slide slide;
@@ -48,6 +49,17 @@ public class AddSlideCommand implements Command {
         return description;
     }
     
+    /**
+     * 幻灯片不在文档中时（已删除或已撤销添加）只被本命令引用
+     */
+    @Override
+    public long estimateRetainedBytes() {
+        if (slide == null || presentation == null || presentation.indexOfSlide(slide) >= 0) {
+            return 64;
+        }
+        return 64 + slide.estimateMemoryBytes();
+    }
+    
     public Presentation getPresentation() {
         return presentation;
     }
@@ -59,4 +71,20 @@ public class AddSlideCommand implements Command {
     public int getInsertIndex() {
         return insertIndex;
     }
-} 
\ No newline at end of file
+    
+    @Override
+    public byte getJournalType() {
+        return CommandJournal.ADD_SLIDE;
+    }
+    
+    @Override
+    public void writeTo(CommandJournal.Output out) throws IOException {
+        out.writeSlide(slide);
+        out.writeInt(insertIndex);
+    }
+    
+    static AddSlideCommand readFrom(CommandJournal.Input in) throws IOException {
+        Slide slide = in.readSlide();
+        return new AddSlideCommand(in.getPresentation(), slide, in.readInt());
+    }
+}
@@ -44,4 +44,30 @@ public interface Command {
     default boolean canRedo() {
         return true;
     }
+    
+    /**
+     * 估算命令在历史记录中独占的内存（字节），CommandManager据此按内存预算淘汰旧命令
+     * 只计算仅被命令引用的对象：如已删除、尚未恢复的元素；仍在文档中的对象不计入
+     * @return 估算的字节数
+     */
+    default long estimateRetainedBytes() {
+        return 64;
+    }
+    
+    /**
+     * 判断能否吸收紧接着执行的命令（如按住方向键的连续微调）
+     * 合并后两者成为一条历史记录，撤销一次即回到本命令执行前的状态
+     * @param next 刚执行完的后续命令
+     * @return true如果可以合并
+     */
+    default boolean canMergeWith(Command next) {
+        return false;
+    }
+    
+    /**
+     * 吸收后续命令的效果，只在canMergeWith返回true后调用
+     * @param next 刚执行完的后续命令
+     */
+    default void mergeWith(Command next) {
+    }
 } 
\ No newline at end of file
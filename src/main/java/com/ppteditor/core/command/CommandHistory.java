@@ -0,0 +1,173 @@
+package com.ppteditor.core.command;
+
+/**
+ * 有界命令历史
+ * 基于数组的环形双端队列：在最新一端压入和弹出，超出容量时从最旧一端丢弃，均为O(1)且不分配内存；
+ * 每个命令压入时记录其估算的占用内存（Command.estimateRetainedBytes），维护总量供按字节预算淘汰；
+ * 非线程安全，由CommandManager在单一线程中使用
+ */
+class CommandHistory {
+
+    private Command[] elements;
+    private long[] sizes; // 与elements对应的估算字节数
+    private long totalBytes;
+    private int head; // 最旧元素的位置
+    private int size;
+
+    CommandHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("历史容量必须大于0: " + capacity);
+        }
+        this.elements = new Command[capacity];
+        this.sizes = new long[capacity];
+    }
+
+    /**
+     * 压入最新的命令
+     * @return 容量已满时被挤出的最旧命令，否则为null
+     */
+    Command push(Command command) {
+        Command evicted = null;
+        if (size == elements.length) {
+            evicted = removeOldest();
+        }
+        int slot = index(size);
+        long bytes = command.estimateRetainedBytes();
+        elements[slot] = command;
+        sizes[slot] = bytes;
+        totalBytes += bytes;
+        size++;
+        return evicted;
+    }
+
+    /**
+     * 在最旧一端放入命令（如从撤销日志读回的更早的命令）
+     * @return 容量已满时返回false，不放入
+     */
+    boolean pushOldest(Command command) {
+        if (size == elements.length) return false;
+        head = head == 0 ? elements.length - 1 : head - 1;
+        long bytes = command.estimateRetainedBytes();
+        elements[head] = command;
+        sizes[head] = bytes;
+        totalBytes += bytes;
+        size++;
+        return true;
+    }
+
+    /**
+     * 弹出最新的命令，为空时返回null
+     */
+    Command pop() {
+        if (size == 0) return null;
+        int last = index(size - 1);
+        Command command = elements[last];
+        elements[last] = null;
+        totalBytes -= sizes[last];
+        sizes[last] = 0;
+        size--;
+        return command;
+    }
+
+    Command peek() {
+        return size == 0 ? null : elements[index(size - 1)];
+    }
+
+    /**
+     * 最新的命令合并了后续命令后重新估算其大小
+     */
+    void refreshNewest() {
+        if (size == 0) return;
+        int last = index(size - 1);
+        long bytes = elements[last].estimateRetainedBytes();
+        totalBytes += bytes - sizes[last];
+        sizes[last] = bytes;
+    }
+
+    /**
+     * 移除最旧的命令，为空时返回null
+     */
+    Command removeOldest() {
+        if (size == 0) return null;
+        Command command = elements[head];
+        elements[head] = null;
+        totalBytes -= sizes[head];
+        sizes[head] = 0;
+        head = (head + 1) % elements.length;
+        size--;
+        return command;
+    }
+
+    Command peekOldest() {
+        return size == 0 ? null : elements[head];
+    }
+
+    /**
+     * 按从旧到新的顺序取得第i个命令
+     */
+    Command get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("索引: " + i + ", 大小: " + size);
+        }
+        return elements[index(i)];
+    }
+
+    /**
+     * 修改容量，缩小时丢弃最旧的命令
+     * @return 被丢弃的命令数
+     */
+    int setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("历史容量必须大于0: " + capacity);
+        }
+        int dropped = 0;
+        while (size > capacity) {
+            removeOldest();
+            dropped++;
+        }
+        Command[] resized = new Command[capacity];
+        long[] resizedSizes = new long[capacity];
+        for (int i = 0; i < size; i++) {
+            resized[i] = elements[index(i)];
+            resizedSizes[i] = sizes[index(i)];
+        }
+        elements = resized;
+        sizes = resizedSizes;
+        head = 0;
+        return dropped;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            elements[index(i)] = null;
+            sizes[index(i)] = 0;
+        }
+        head = 0;
+        size = 0;
+        totalBytes = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 所有命令估算占用的字节数之和
+     */
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int index(int offset) {
+        int i = head + offset;
+        return i < elements.length ? i : i - elements.length;
+    }
+}
@@ -0,0 +1,258 @@
+package com.ppteditor.core.command;
+
+import com.ppteditor.core.io.PresentationFileManager;
+import com.ppteditor.core.model.Presentation;
+import com.ppteditor.core.model.Slide;
+import com.ppteditor.core.model.SlideElement;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 撤销日志
+ * 超出内存窗口的旧命令按顺序追加到临时文件，撤销越过内存窗口时再从文件末尾逐条读回；
+ * 每条记录为[长度][类型][内容]，写入后不再修改，读回后截断文件回收空间
+ * 命令引用的元素和幻灯片仍在文档中时只记录id，读回时按id找到文档中的对象；
+ * 已不在文档中（如已删除）时记录其JSON快照，读回时重建
+ * 关闭时删除日志文件；进程退出时仍未关闭的日志由一个共享的关闭钩子统一删除
+ * 非线程安全，由CommandManager在单一线程中使用
+ */
+class CommandJournal implements Closeable {
+    
+    // 记录类型
+    static final byte MOVE_ELEMENT = 1;
+    static final byte MOVE_ELEMENTS = 2;
+    static final byte SCALE_ELEMENT = 3;
+    static final byte EDIT_TEXT = 4;
+    static final byte ADD_ELEMENTS = 5;
+    static final byte DELETE_ELEMENTS = 6;
+    static final byte ADD_SLIDE = 7;
+    static final byte REMOVE_SLIDE = 8;
+    static final byte RENAME_SLIDE = 9;
+    static final byte BATCH = 10;
+    
+    // 尚未关闭的日志文件，进程退出时统一删除
+    private static final Set<File> OPEN_FILES = ConcurrentHashMap.newKeySet();
+    
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (File file : OPEN_FILES) {
+                file.delete();
+            }
+        }, "undo-journal-cleanup"));
+    }
+    
+    private final Presentation presentation;
+    private final File file;
+    private final RandomAccessFile data;
+    private long[] offsets; // 每条记录的起始位置，从旧到新
+    private int count;
+    private long end;
+    
+    CommandJournal(Presentation presentation) throws IOException {
+        this.presentation = presentation;
+        this.file = File.createTempFile("ppteditor-undo", ".journal");
+        try {
+            this.data = new RandomAccessFile(file, "rw");
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        }
+        OPEN_FILES.add(file);
+        this.offsets = new long[64];
+    }
+    
+    static boolean canJournal(Command command) {
+        return command instanceof JournaledCommand && ((JournaledCommand) command).isJournalable();
+    }
+    
+    Presentation getPresentation() {
+        return presentation;
+    }
+    
+    /**
+     * 追加一条比日志中所有命令都新的命令
+     */
+    void append(Command command) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (Output out = new Output(buffer)) {
+            out.writeCommand(command);
+        }
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        data.seek(end);
+        data.writeInt(buffer.size());
+        data.write(buffer.toByteArray());
+        offsets[count++] = end;
+        end = data.getFilePointer();
+    }
+    
+    /**
+     * 取出最新的一条命令并从日志中删除，为空时返回null
+     */
+    Command removeNewest() throws IOException {
+        if (count == 0) return null;
+        long offset = offsets[--count];
+        data.seek(offset);
+        byte[] record = new byte[data.readInt()];
+        data.readFully(record);
+        data.setLength(offset);
+        end = offset;
+        try (Input in = new Input(new ByteArrayInputStream(record))) {
+            return in.readCommand();
+        }
+    }
+    
+    int size() {
+        return count;
+    }
+    
+    boolean isEmpty() {
+        return count == 0;
+    }
+    
+    /**
+     * 日志文件当前占用的字节数
+     */
+    long getFileBytes() {
+        return end;
+    }
+    
+    void clear() throws IOException {
+        count = 0;
+        end = 0;
+        data.setLength(0);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            data.close();
+        } finally {
+            file.delete();
+            OPEN_FILES.remove(file);
+        }
+    }
+    
+    /**
+     * 写入一条记录，提供字符串、元素和幻灯片的编码
+     */
+    final class Output extends DataOutputStream {
+        
+        private Output(OutputStream out) {
+            super(out);
+        }
+        
+        void writeCommand(Command command) throws IOException {
+            JournaledCommand journaled = (JournaledCommand) command;
+            writeByte(journaled.getJournalType());
+            journaled.writeTo(this);
+        }
+        
+        // writeUTF限制64KB，长文本用长度+UTF-8字节
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            write(bytes);
+        }
+        
+        void writeElement(SlideElement<?> element) throws IOException {
+            boolean live = presentation.findElementById(element.getId()) == element;
+            writeString(element.getId());
+            writeSnapshot(live ? null : element, SlideElement.class);
+        }
+        
+        void writeSlide(Slide slide) throws IOException {
+            boolean live = presentation.indexOfSlide(slide) >= 0;
+            writeString(slide.getId());
+            writeSnapshot(live ? null : slide, Slide.class);
+        }
+        
+        private void writeSnapshot(Object value, Class<?> type) throws IOException {
+            if (value == null) {
+                writeInt(-1);
+                return;
+            }
+            byte[] json = PresentationFileManager.writeFragment(value, type);
+            writeInt(json.length);
+            write(json);
+        }
+    }
+    
+    /**
+     * 读取一条记录，元素和幻灯片优先取文档中的现有对象
+     */
+    final class Input extends DataInputStream {
+        
+        private Input(InputStream in) {
+            super(in);
+        }
+        
+        Presentation getPresentation() {
+            return presentation;
+        }
+        
+        Command readCommand() throws IOException {
+            byte type = readByte();
+            switch (type) {
+                case MOVE_ELEMENT: return MoveElementCommand.readFrom(this);
+                case MOVE_ELEMENTS: return MoveElementsCommand.readFrom(this);
+                case SCALE_ELEMENT: return ScaleElementCommand.readFrom(this);
+                case EDIT_TEXT: return EditTextCommand.readFrom(this);
+                case ADD_ELEMENTS: return AddElementCommand.readFrom(this);
+                case DELETE_ELEMENTS: return DeleteElementsCommand.readFrom(this);
+                case ADD_SLIDE: return AddSlideCommand.readFrom(this);
+                case REMOVE_SLIDE: return RemoveSlideCommand.readFrom(this);
+                case RENAME_SLIDE: return RenameSlideCommand.readFrom(this);
+                case BATCH: return CommandManager.BatchCommand.readFrom(this);
+                default: throw new IOException("未知的日志记录类型: " + type);
+            }
+        }
+        
+        String readString() throws IOException {
+            int length = readInt();
+            if (length < 0) return null;
+            byte[] bytes = new byte[length];
+            readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        
+        SlideElement<?> readElement() throws IOException {
+            String id = readString();
+            byte[] snapshot = readSnapshot();
+            SlideElement<?> element = presentation.findElementById(id);
+            if (element != null) return element;
+            if (snapshot == null) {
+                throw new IOException("日志引用的元素已不在文档中: " + id);
+            }
+            return PresentationFileManager.readFragment(snapshot, SlideElement.class);
+        }
+        
+        Slide readSlide() throws IOException {
+            String id = readString();
+            byte[] snapshot = readSnapshot();
+            Slide slide = presentation.findSlideById(id);
+            if (slide != null) return slide;
+            if (snapshot == null) {
+                throw new IOException("日志引用的幻灯片已不在文档中: " + id);
+            }
+            return PresentationFileManager.readFragment(snapshot, Slide.class);
+        }
+        
+        private byte[] readSnapshot() throws IOException {
+            int length = readInt();
+            if (length < 0) return null;
+            byte[] bytes = new byte[length];
+            readFully(bytes);
+            return bytes;
+        }
+    }
+}
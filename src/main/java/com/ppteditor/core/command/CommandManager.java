@@ -1,64 +1,149 @@
 package com.ppteditor.core.command;
 
-import java.util.Stack;
+import com.ppteditor.core.model.Presentation;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.HashMap;
 import java.util.function.Consumer;
 
 /**
  * 命令管理器
- * 使用单例模式管理命令的执行、撤销和重做
+ * 管理命令的执行、撤销和重做；每个演示文稿有自己的命令管理器（见forPresentation），
+ * 也可以直接创建独立的实例，如后台批量编辑
+ * 非线程安全：实例在第一次使用它的线程上绑定，之后从其他线程调用会抛出IllegalStateException
  */
 public class CommandManager {
     
-    private static volatile CommandManager instance;
-    private final Stack<Command> undoStack;
-    private final Stack<Command> redoStack;
-    private final int maxHistorySize;
+    // 步数上限，实际保留多少步主要由内存预算决定
+    public static final int DEFAULT_HISTORY_SIZE = 1000;
+    public static final long DEFAULT_HISTORY_BYTES = 64L * 1024 * 1024;
+    // 与上一条命令间隔不超过该时间才尝试合并
+    public static final long DEFAULT_MERGE_WINDOW_MS = 1000;
+    
+    // 演示文稿 -> 命令管理器；命令和撤销日志都引用文档，条目不会自动移除，关闭文档时须调用release
+    private static final Map<Presentation, CommandManager> MANAGERS = new HashMap<>();
+    
+    private volatile Thread owner; // 所属线程，第一次使用时绑定
+    // 环形缓冲区，超出容量时O(1)丢弃最旧的命令
+    private final CommandHistory undoStack;
+    private final CommandHistory redoStack;
+    private int maxHistorySize;
+    private long maxHistoryBytes;
+    private long mergeWindowNanos;
+    private long lastExecuteNanos;
+    private boolean mergeAllowed; // 撤销、重做、清空之后不再与之前的命令合并
+    // 撤销和重做各自的日志，为null时超出内存窗口的命令直接丢弃
+    private CommandJournal undoJournal;
+    private CommandJournal redoJournal;
     
     // 回调函数 - 使用Lambda表达式
     private Consumer<String> statusCallback;
+    private Runnable historyChangedCallback;
     
-    private CommandManager() {
-        this.undoStack = new Stack<>();
-        this.redoStack = new Stack<>();
-        this.maxHistorySize = 100; // 最大历史记录数
+    public CommandManager() {
+        this.maxHistorySize = DEFAULT_HISTORY_SIZE; // 最大历史记录数
+        this.maxHistoryBytes = DEFAULT_HISTORY_BYTES; // 撤销/重做历史的内存预算
+        this.mergeWindowNanos = DEFAULT_MERGE_WINDOW_MS * 1_000_000L;
+        this.undoStack = new CommandHistory(maxHistorySize);
+        this.redoStack = new CommandHistory(maxHistorySize);
     }
     
-    // 单例模式 - 双重检查锁定
-    public static CommandManager getInstance() {
-        if (instance == null) {
-            synchronized (CommandManager.class) {
-                if (instance == null) {
-                    instance = new CommandManager();
-                }
-            }
+    /**
+     * 取得演示文稿的命令管理器，不存在时创建
+     * 不同文档的历史互不影响；可以在任意线程调用，返回的实例只能在一个线程中使用
+     */
+    public static CommandManager forPresentation(Presentation presentation) {
+        if (presentation == null) {
+            throw new IllegalArgumentException("演示文稿不能为空");
+        }
+        synchronized (MANAGERS) {
+            return MANAGERS.computeIfAbsent(presentation, p -> new CommandManager());
+        }
+    }
+    
+    /**
+     * 关闭文档时调用：解除关联、清空其命令历史并删除撤销日志，之后不应再使用该命令管理器
+     * 不调用时文档和它的命令历史会一直留在内存中；可以在任意线程调用
+     */
+    public static void release(Presentation presentation) {
+        CommandManager manager;
+        synchronized (MANAGERS) {
+            manager = MANAGERS.remove(presentation);
+        }
+        if (manager != null) {
+            manager.discard();
+        }
+    }
+    
+    // 已解除关联的实例不再被所属线程使用，不做线程检查，保证日志文件一定被删除
+    private void discard() {
+        closeJournal(undoJournal);
+        closeJournal(redoJournal);
+        undoJournal = null;
+        redoJournal = null;
+        undoStack.clear();
+        redoStack.clear();
+        owner = null;
+    }
+    
+    /**
+     * 清空历史并关闭撤销日志，之后仍可继续使用
+     */
+    public void dispose() {
+        disableJournal();
+        clearHistory();
+    }
+    
+    /**
+     * 交出线程所有权：之后第一个使用本实例的线程成为新的所属线程
+     * 如在一个线程中准备好命令管理器后交给后台任务
+     */
+    public void releaseOwnership() {
+        checkThread();
+        owner = null;
+    }
+    
+    // 线程封闭检查，未绑定时绑定到当前线程
+    private void checkThread() {
+        Thread current = Thread.currentThread();
+        Thread bound = owner;
+        if (bound == current) return;
+        if (bound == null) {
+            owner = current;
+            return;
         }
-        return instance;
+        throw new IllegalStateException("CommandManager只能在所属线程中使用，所属线程: "
+            + bound.getName() + "，当前线程: " + current.getName());
     }
     
     /**
      * 执行命令并添加到撤销栈
+     * 时间窗口内能被上一条命令吸收的命令（见Command.canMergeWith）不单独入栈
      */
     public void executeCommand(Command command) {
         if (command == null) return;
+        checkThread();
         try {
             command.execute();
             // 清空重做栈
             redoStack.clear();
-            // 添加到撤销栈
-            undoStack.push(command);
-            // 限制历史记录大小
-            if (undoStack.size() > maxHistorySize) {
-                // 移除最旧的命令
-                Stack<Command> temp = new Stack<>();
-                for (int i = 0; i < maxHistorySize - 1; i++) {
-                    temp.push(undoStack.pop());
-                }
-                undoStack.clear();
-                while (!temp.isEmpty()) {
-                    undoStack.push(temp.pop());
-                }
+            clearJournal(redoJournal);
+            long now = System.nanoTime();
+            Command last = undoStack.peek();
+            if (mergeAllowed && last != null && now - lastExecuteNanos <= mergeWindowNanos
+                    && last.canMergeWith(command)) {
+                last.mergeWith(command);
+                undoStack.refreshNewest();
+            } else {
+                // 添加到撤销栈，已满时最旧的命令写入日志或丢弃
+                pushUndo(command);
             }
+            trimToBudget();
+            lastExecuteNanos = now;
+            mergeAllowed = true;
             notifyStatusChange("执行: " + command.getDescription());
+            notifyHistoryChanged();
         } catch (Exception e) {
             notifyStatusChange("执行失败: " + command.getDescription());
             throw new RuntimeException("命令执行失败", e);
@@ -67,18 +152,22 @@ public class CommandManager {
     
     //撤销上一个命令
     public boolean undo() {
+        checkThread();
         if (!canUndo()) return false;
         Command command = undoStack.pop();
+        mergeAllowed = false;
         try {
             if (command.canUndo()) {
                 command.undo();
-                redoStack.push(command);
+                pushRedo(command);
+                trimToBudget();
                 notifyStatusChange("撤销: " + command.getDescription());
+                notifyHistoryChanged();
                 return true;
             }
         } catch (Exception e) {
             // 如果撤销失败，重新加入撤销栈
-            undoStack.push(command);
+            pushUndo(command);
             notifyStatusChange("撤销失败: " + command.getDescription());
             throw new RuntimeException("撤销失败", e);
         }
@@ -87,18 +176,22 @@ public class CommandManager {
     
     //重做下一个命令
     public boolean redo() {
+        checkThread();
         if (!canRedo()) return false;
         Command command = redoStack.pop();
+        mergeAllowed = false;
         try {
             if (command.canRedo()) {
                 command.redo();
-                undoStack.push(command);
+                pushUndo(command);
+                trimToBudget();
                 notifyStatusChange("重做: " + command.getDescription());
+                notifyHistoryChanged();
                 return true;
             }
         } catch (Exception e) {
             // 如果重做失败，重新加入重做栈
-            redoStack.push(command);
+            pushRedo(command);
             notifyStatusChange("重做失败: " + command.getDescription());
             throw new RuntimeException("重做失败", e);
         }
@@ -109,6 +202,8 @@ public class CommandManager {
      * 检查是否可以撤销
      */
     public boolean canUndo() {
+        checkThread();
+        loadFromJournal(undoStack, undoJournal);
         return !undoStack.isEmpty() && undoStack.peek().canUndo();
     }
     
@@ -116,6 +211,8 @@ public class CommandManager {
      * 检查是否可以重做
      */
     public boolean canRedo() {
+        checkThread();
+        loadFromJournal(redoStack, redoJournal);
         return !redoStack.isEmpty() && redoStack.peek().canRedo();
     }
     
@@ -143,9 +240,221 @@ public class CommandManager {
      * 清空所有历史记录
      */
     public void clearHistory() {
+        checkThread();
         undoStack.clear();
         redoStack.clear();
+        mergeAllowed = false;
+        clearJournal(undoJournal);
+        clearJournal(redoJournal);
         notifyStatusChange("历史记录已清空");
+        notifyHistoryChanged();
+    }
+    
+    /**
+     * 设置最大历史记录数（如按文档设置），缩小时丢弃最旧的命令
+     */
+    public void setMaxHistorySize(int maxHistorySize) {
+        checkThread();
+        if (maxHistorySize < 1) {
+            throw new IllegalArgumentException("历史记录数必须大于0: " + maxHistorySize);
+        }
+        if (maxHistorySize == this.maxHistorySize) return;
+        this.maxHistorySize = maxHistorySize;
+        while (undoStack.size() > maxHistorySize) {
+            retire(undoStack.removeOldest(), undoJournal);
+        }
+        while (redoStack.size() > maxHistorySize) {
+            retire(redoStack.removeOldest(), redoJournal);
+        }
+        undoStack.setCapacity(maxHistorySize);
+        redoStack.setCapacity(maxHistorySize);
+        notifyHistoryChanged();
+    }
+    
+    public int getMaxHistorySize() {
+        return maxHistorySize;
+    }
+    
+    /**
+     * 设置撤销/重做历史的内存预算（字节），超出时先丢弃最远的重做，再从最旧的撤销命令开始丢弃
+     */
+    public void setMaxHistoryBytes(long maxHistoryBytes) {
+        checkThread();
+        if (maxHistoryBytes < 1) {
+            throw new IllegalArgumentException("内存预算必须大于0: " + maxHistoryBytes);
+        }
+        this.maxHistoryBytes = maxHistoryBytes;
+        trimToBudget();
+        notifyHistoryChanged();
+    }
+    
+    public long getMaxHistoryBytes() {
+        return maxHistoryBytes;
+    }
+    
+    /**
+     * 设置命令合并的时间窗口（毫秒），0表示不合并
+     */
+    public void setMergeWindowMillis(long millis) {
+        checkThread();
+        if (millis < 0) {
+            throw new IllegalArgumentException("合并时间窗口不能为负: " + millis);
+        }
+        this.mergeWindowNanos = millis * 1_000_000L;
+        if (millis == 0) {
+            mergeAllowed = false;
+        }
+    }
+    
+    public long getMergeWindowMillis() {
+        return mergeWindowNanos / 1_000_000L;
+    }
+    
+    /**
+     * 结束当前的合并：下一条命令即使在时间窗口内也单独成为一条历史记录
+     * 如松开方向键、结束拖动或确认一次编辑时调用
+     */
+    public void endMerge() {
+        checkThread();
+        mergeAllowed = false;
+    }
+    
+    /**
+     * 撤销和重做历史估算占用的内存（字节）
+     */
+    public long getHistoryBytes() {
+        return undoStack.getTotalBytes() + redoStack.getTotalBytes();
+    }
+    
+    public long getUndoBytes() {
+        return undoStack.getTotalBytes();
+    }
+    
+    public long getRedoBytes() {
+        return redoStack.getTotalBytes();
+    }
+    
+    // 超出内存预算时先移出最远的重做命令，再移出最旧的可撤销命令，撤销至少保留最近一步
+    // 否则撤销一条大命令（如插入大图）后，它在重做栈中的占用会把撤销历史挤到只剩一步
+    private void trimToBudget() {
+        while (getHistoryBytes() > maxHistoryBytes && !redoStack.isEmpty()) {
+            retire(redoStack.removeOldest(), redoJournal);
+        }
+        while (getHistoryBytes() > maxHistoryBytes && undoStack.size() > 1) {
+            retire(undoStack.removeOldest(), undoJournal);
+        }
+    }
+    
+    private void pushUndo(Command command) {
+        Command evicted = undoStack.push(command);
+        if (evicted != null) {
+            retire(evicted, undoJournal);
+        }
+    }
+    
+    // 重做栈已满时被挤出的是最远的一步重做
+    private void pushRedo(Command command) {
+        Command evicted = redoStack.push(command);
+        if (evicted != null) {
+            retire(evicted, redoJournal);
+        }
+    }
+    
+    /**
+     * 为文档启用撤销日志：超出内存窗口（步数上限或内存预算）的旧命令写入临时文件而不是丢弃，
+     * 撤销越过内存窗口时再读回，历史长度只受磁盘空间限制
+     * 日志中的命令按id引用该文档中的元素和幻灯片，因此切换文档时应重新调用，现有历史会被清空
+     */
+    public void enableJournal(Presentation presentation) throws IOException {
+        checkThread();
+        if (presentation == null) {
+            throw new IllegalArgumentException("演示文稿不能为空");
+        }
+        disableJournal();
+        undoStack.clear();
+        redoStack.clear();
+        mergeAllowed = false;
+        undoJournal = new CommandJournal(presentation);
+        try {
+            redoJournal = new CommandJournal(presentation);
+        } catch (IOException e) {
+            disableJournal();
+            throw e;
+        }
+        notifyHistoryChanged();
+    }
+    
+    /**
+     * 关闭撤销日志并删除临时文件，日志中的命令不能再撤销
+     */
+    public void disableJournal() {
+        checkThread();
+        closeJournal(undoJournal);
+        closeJournal(redoJournal);
+        undoJournal = null;
+        redoJournal = null;
+        notifyHistoryChanged();
+    }
+    
+    public boolean isJournalEnabled() {
+        return undoJournal != null;
+    }
+    
+    /**
+     * 已写入日志、不在内存中的撤销和重做命令数
+     */
+    public int getJournaledCount() {
+        return undoJournal != null ? undoJournal.size() + redoJournal.size() : 0;
+    }
+    
+    public long getJournalBytes() {
+        return undoJournal != null ? undoJournal.getFileBytes() + redoJournal.getFileBytes() : 0;
+    }
+    
+    // 移出内存窗口的命令：能写入日志则写入，否则丢弃，日志中更早的命令也随之失效
+    private void retire(Command command, CommandJournal journal) {
+        if (journal == null || command == null) return;
+        if (!CommandJournal.canJournal(command)) {
+            clearJournal(journal);
+            return;
+        }
+        try {
+            journal.append(command);
+        } catch (IOException e) {
+            System.err.println("写入撤销日志失败: " + e.getMessage());
+            clearJournal(journal);
+        }
+    }
+    
+    // 内存中的栈为空时从日志读回下一条命令
+    // 每次只读一条：记录中的id要在文档恢复到该命令对应的状态后才能解析到正确的对象
+    private void loadFromJournal(CommandHistory history, CommandJournal journal) {
+        if (journal == null || journal.isEmpty() || !history.isEmpty()) return;
+        try {
+            history.pushOldest(journal.removeNewest());
+        } catch (IOException e) {
+            System.err.println("读取撤销日志失败: " + e.getMessage());
+            clearJournal(journal);
+            notifyStatusChange("撤销日志读取失败，更早的历史已丢弃");
+        }
+    }
+    
+    private static void clearJournal(CommandJournal journal) {
+        if (journal == null) return;
+        try {
+            journal.clear();
+        } catch (IOException e) {
+            System.err.println("清空撤销日志失败: " + e.getMessage());
+        }
+    }
+    
+    private static void closeJournal(CommandJournal journal) {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("关闭撤销日志失败: " + e.getMessage());
+        }
     }
     
     /**
@@ -175,6 +484,19 @@ public class CommandManager {
         }
     }
     
+    /**
+     * 设置历史变化回调，执行、撤销、重做和清空后调用（如刷新状态栏的内存占用）
+     */
+    public void setHistoryChangedCallback(Runnable callback) {
+        this.historyChangedCallback = callback;
+    }
+    
+    private void notifyHistoryChanged() {
+        if (historyChangedCallback != null) {
+            historyChangedCallback.run();
+        }
+    }
+    
     /**
      * 批量执行命令（作为一个整体进行撤销/重做）
      */
@@ -196,7 +518,7 @@ public class CommandManager {
     /**
      * 批量命令实现
      */
-    private static class BatchCommand implements Command {
+    static class BatchCommand implements JournaledCommand {
         private final String description;
         private final Command[] commands;
         
@@ -225,6 +547,39 @@ public class CommandManager {
             return description;
         }
         
+        @Override
+        public long estimateRetainedBytes() {
+            long bytes = 64;
+            for (Command command : commands) {
+                bytes += command.estimateRetainedBytes();
+            }
+            return bytes;
+        }
+        
+        /**
+         * 两个批量命令的各个子命令依次都能合并时合并，如多选时连续调整大小
+         */
+        @Override
+        public boolean canMergeWith(Command next) {
+            if (!(next instanceof BatchCommand)) return false;
+            BatchCommand other = (BatchCommand) next;
+            if (other.commands.length != commands.length) return false;
+            for (int i = 0; i < commands.length; i++) {
+                if (!commands[i].canMergeWith(other.commands[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public void mergeWith(Command next) {
+            BatchCommand other = (BatchCommand) next;
+            for (int i = 0; i < commands.length; i++) {
+                commands[i].mergeWith(other.commands[i]);
+            }
+        }
+        
         @Override
         public boolean canUndo() {
             // 所有命令都可以撤销才能撤销批量命令
@@ -246,5 +601,38 @@ public class CommandManager {
             }
             return true;
         }
+        
+        @Override
+        public byte getJournalType() {
+            return CommandJournal.BATCH;
+        }
+        
+        @Override
+        public boolean isJournalable() {
+            for (Command command : commands) {
+                if (!CommandJournal.canJournal(command)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public void writeTo(CommandJournal.Output out) throws IOException {
+            out.writeString(description);
+            out.writeInt(commands.length);
+            for (Command command : commands) {
+                out.writeCommand(command);
+            }
+        }
+        
+        static BatchCommand readFrom(CommandJournal.Input in) throws IOException {
+            String description = in.readString();
+            Command[] commands = new Command[in.readInt()];
+            for (int i = 0; i < commands.length; i++) {
+                commands[i] = in.readCommand();
+            }
+            return new BatchCommand(description, commands);
+        }
     }
 } 
\ No newline at end of file
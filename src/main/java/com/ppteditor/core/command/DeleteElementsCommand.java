@@ -4,12 +4,13 @@ import com.ppteditor.core.model.Slide;
 import com.ppteditor.core.model.SlideElement;
 import java.util.List;
 import java.util.ArrayList;
+import java.io.IOException;
 
 /**
  * 删除元素命令
  * 实现从幻灯片删除元素的可撤销操作
  */
-public class DeleteElementsCommand implements Command {
+public class DeleteElementsCommand implements JournaledCommand {
     
     private final Slide slide;
     private final List<SlideElement<?>> elements;
@@ -44,6 +45,20 @@ public class DeleteElementsCommand implements Command {
         return description;
     }
     
+    /**
+     * 不在幻灯片中的元素只被本命令引用，计入其完整大小
+     */
+    @Override
+    public long estimateRetainedBytes() {
+        long bytes = 64 + elements.size() * 8L;
+        for (SlideElement<?> element : elements) {
+            if (slide == null || !slide.containsElement(element)) {
+                bytes += element.estimateMemoryBytes();
+            }
+        }
+        return bytes;
+    }
+    
     public Slide getSlide() {
         return slide;
     }
@@ -51,4 +66,28 @@ public class DeleteElementsCommand implements Command {
     public List<SlideElement<?>> getElements() {
         return new ArrayList<>(elements);
     }
-} 
\ No newline at end of file
+    
+    @Override
+    public byte getJournalType() {
+        return CommandJournal.DELETE_ELEMENTS;
+    }
+    
+    @Override
+    public void writeTo(CommandJournal.Output out) throws IOException {
+        out.writeSlide(slide);
+        out.writeInt(elements.size());
+        for (SlideElement<?> element : elements) {
+            out.writeElement(element);
+        }
+    }
+    
+    static DeleteElementsCommand readFrom(CommandJournal.Input in) throws IOException {
+        Slide slide = in.readSlide();
+        int count = in.readInt();
+        List<SlideElement<?>> elements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            elements.add(in.readElement());
+        }
+        return new DeleteElementsCommand(slide, elements);
+    }
+}
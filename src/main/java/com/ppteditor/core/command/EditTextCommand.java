@@ -1,16 +1,18 @@
 package com.ppteditor.core.command;
 
 import com.ppteditor.core.model.TextElement;
+import java.util.Objects;
+import java.io.IOException;
 
 /**
  * 编辑文本命令
  * 实现文本内容修改的可撤销操作
  */
-public class EditTextCommand implements Command {
+public class EditTextCommand implements JournaledCommand {
     
     private final TextElement textElement;
     private final String oldText;
-    private final String newText;
+    private String newText; // 连续输入合并时更新
     private final String description;
     
     public EditTextCommand(TextElement textElement, String oldText, String newText) {
@@ -39,6 +41,30 @@ public class EditTextCommand implements Command {
         return description;
     }
     
+    @Override
+    public long estimateRetainedBytes() {
+        return 64 + lengthOf(oldText) * 2L + lengthOf(newText) * 2L;
+    }
+    
+    /**
+     * 同一文本元素的连续编辑合并为一次
+     */
+    @Override
+    public boolean canMergeWith(Command next) {
+        if (!(next instanceof EditTextCommand)) return false;
+        EditTextCommand other = (EditTextCommand) next;
+        return other.textElement == textElement && Objects.equals(other.oldText, newText);
+    }
+    
+    @Override
+    public void mergeWith(Command next) {
+        newText = ((EditTextCommand) next).newText;
+    }
+    
+    private static int lengthOf(String text) {
+        return text != null ? text.length() : 0;
+    }
+    
     public TextElement getTextElement() {
         return textElement;
     }
@@ -50,4 +76,23 @@ public class EditTextCommand implements Command {
     public String getNewText() {
         return newText;
     }
-} 
\ No newline at end of file
+    
+    @Override
+    public byte getJournalType() {
+        return CommandJournal.EDIT_TEXT;
+    }
+    
+    @Override
+    public void writeTo(CommandJournal.Output out) throws IOException {
+        out.writeElement(textElement);
+        out.writeString(oldText);
+        out.writeString(newText);
+    }
+    
+    static EditTextCommand readFrom(CommandJournal.Input in) throws IOException {
+        TextElement textElement = (TextElement) in.readElement();
+        String oldText = in.readString();
+        String newText = in.readString();
+        return new EditTextCommand(textElement, oldText, newText);
+    }
+}
@@ -0,0 +1,27 @@
+package com.ppteditor.core.command;
+
+import java.io.IOException;
+
+/**
+ * 可写入撤销日志的命令
+ * 实现类另需提供静态方法readFrom(CommandJournal.Input)，并在CommandJournal.Input.readCommand中按类型登记
+ */
+interface JournaledCommand extends Command {
+    
+    /**
+     * 日志记录的类型，取CommandJournal中的常量
+     */
+    byte getJournalType();
+    
+    /**
+     * 写出重建命令所需的全部状态
+     */
+    void writeTo(CommandJournal.Output out) throws IOException;
+    
+    /**
+     * 当前能否写入日志，如批量命令只有所有子命令都可写入时才可写入
+     */
+    default boolean isJournalable() {
+        return true;
+    }
+}
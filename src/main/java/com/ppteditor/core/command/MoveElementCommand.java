@@ -2,12 +2,13 @@ package com.ppteditor.core.command;
 
 import com.ppteditor.core.model.SlideElement;
 import java.awt.Point;
+import java.io.IOException;
 
 /**
  * 移动元素命令
  * 实现元素位置变化的可撤销操作
  */
-public class MoveElementCommand implements Command {
+public class MoveElementCommand implements JournaledCommand {
     
     private final SlideElement<?> element;
     private final Point oldPosition;
@@ -40,6 +41,21 @@ public class MoveElementCommand implements Command {
         return description;
     }
     
+    /**
+     * 同一元素接着上次的位置继续移动时合并
+     */
+    @Override
+    public boolean canMergeWith(Command next) {
+        if (!(next instanceof MoveElementCommand)) return false;
+        MoveElementCommand other = (MoveElementCommand) next;
+        return other.element == element && other.oldPosition.equals(newPosition);
+    }
+    
+    @Override
+    public void mergeWith(Command next) {
+        newPosition.setLocation(((MoveElementCommand) next).newPosition);
+    }
+    
     public SlideElement<?> getElement() {
         return element;
     }
@@ -51,4 +67,25 @@ public class MoveElementCommand implements Command {
     public Point getNewPosition() {
         return new Point(newPosition);
     }
-} 
\ No newline at end of file
+    
+    @Override
+    public byte getJournalType() {
+        return CommandJournal.MOVE_ELEMENT;
+    }
+    
+    @Override
+    public void writeTo(CommandJournal.Output out) throws IOException {
+        out.writeElement(element);
+        out.writeInt(oldPosition.x);
+        out.writeInt(oldPosition.y);
+        out.writeInt(newPosition.x);
+        out.writeInt(newPosition.y);
+    }
+    
+    static MoveElementCommand readFrom(CommandJournal.Input in) throws IOException {
+        SlideElement<?> element = in.readElement();
+        Point oldPosition = new Point(in.readInt(), in.readInt());
+        Point newPosition = new Point(in.readInt(), in.readInt());
+        return new MoveElementCommand(element, oldPosition, newPosition);
+    }
+}
@@ -0,0 +1,131 @@
+package com.ppteditor.core.command;
+
+import com.ppteditor.core.model.SlideElement;
+import java.util.Collection;
+import java.io.IOException;
+
+/**
+ * 批量移动元素命令
+ * 把一组元素平移相同的距离，用于方向键微调和多选时的位置调整
+ */
+public class MoveElementsCommand implements JournaledCommand {
+    
+    private final SlideElement<?>[] elements;
+    private final double[] oldX, oldY;
+    private final double[] newX, newY; // 连续微调合并时更新
+    private final String description;
+    
+    public MoveElementsCommand(Collection<? extends SlideElement<?>> elements, double deltaX, double deltaY) {
+        this.elements = elements.toArray(new SlideElement<?>[0]);
+        int count = this.elements.length;
+        this.oldX = new double[count];
+        this.oldY = new double[count];
+        this.newX = new double[count];
+        this.newY = new double[count];
+        for (int i = 0; i < count; i++) {
+            oldX[i] = this.elements[i].getX();
+            oldY[i] = this.elements[i].getY();
+            newX[i] = oldX[i] + deltaX;
+            newY[i] = oldY[i] + deltaY;
+        }
+        this.description = describe(this.elements);
+    }
+    
+    private MoveElementsCommand(SlideElement<?>[] elements, double[] oldX, double[] oldY,
+                                double[] newX, double[] newY) {
+        this.elements = elements;
+        this.oldX = oldX;
+        this.oldY = oldY;
+        this.newX = newX;
+        this.newY = newY;
+        this.description = describe(elements);
+    }
+    
+    private static String describe(SlideElement<?>[] elements) {
+        return elements.length == 1 ? "移动" + elements[0].getType().getDisplayName()
+                                    : "移动" + elements.length + "个元素";
+    }
+    
+    @Override
+    public void execute() {
+        for (int i = 0; i < elements.length; i++) {
+            elements[i].setPosition(newX[i], newY[i]);
+        }
+    }
+    
+    @Override
+    public void undo() {
+        for (int i = 0; i < elements.length; i++) {
+            elements[i].setPosition(oldX[i], oldY[i]);
+        }
+    }
+    
+    @Override
+    public String getDescription() {
+        return description;
+    }
+    
+    @Override
+    public long estimateRetainedBytes() {
+        return 64 + elements.length * 40L;
+    }
+    
+    /**
+     * 同一组元素从上次的位置继续移动时合并
+     */
+    @Override
+    public boolean canMergeWith(Command next) {
+        if (!(next instanceof MoveElementsCommand)) return false;
+        MoveElementsCommand other = (MoveElementsCommand) next;
+        if (other.elements.length != elements.length) return false;
+        for (int i = 0; i < elements.length; i++) {
+            if (other.elements[i] != elements[i] || other.oldX[i] != newX[i] || other.oldY[i] != newY[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public void mergeWith(Command next) {
+        MoveElementsCommand other = (MoveElementsCommand) next;
+        System.arraycopy(other.newX, 0, newX, 0, newX.length);
+        System.arraycopy(other.newY, 0, newY, 0, newY.length);
+    }
+    
+    public int getElementCount() {
+        return elements.length;
+    }
+    
+    @Override
+    public byte getJournalType() {
+        return CommandJournal.MOVE_ELEMENTS;
+    }
+    
+    @Override
+    public void writeTo(CommandJournal.Output out) throws IOException {
+        out.writeInt(elements.length);
+        for (int i = 0; i < elements.length; i++) {
+            out.writeElement(elements[i]);
+            out.writeDouble(oldX[i]);
+            out.writeDouble(oldY[i]);
+            out.writeDouble(newX[i]);
+            out.writeDouble(newY[i]);
+        }
+    }
+    
+    static MoveElementsCommand readFrom(CommandJournal.Input in) throws IOException {
+        int count = in.readInt();
+        SlideElement<?>[] elements = new SlideElement<?>[count];
+        double[] oldX = new double[count], oldY = new double[count];
+        double[] newX = new double[count], newY = new double[count];
+        for (int i = 0; i < count; i++) {
+            elements[i] = in.readElement();
+            oldX[i] = in.readDouble();
+            oldY[i] = in.readDouble();
+            newX[i] = in.readDouble();
+            newY[i] = in.readDouble();
+        }
+        return new MoveElementsCommand(elements, oldX, oldY, newX, newY);
+    }
+}
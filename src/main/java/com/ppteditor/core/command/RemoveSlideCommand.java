@@ -2,12 +2,13 @@ package com.ppteditor.core.command;
 
 import com.ppteditor.core.model.Presentation;
 import com.ppteditor.core.model.Slide;
+import java.io.IOException;
 
 /**
  * 删除幻灯片命令
  * 实现从演示文档删除幻灯片的可撤销操作
  */
-public class RemoveSlideCommand implements Command {
+public class RemoveSlideCommand implements JournaledCommand {
     
     private final Presentation presentation;
     private final Slide slide;
@@ -40,6 +41,17 @@ public class RemoveSlideCommand implements Command {
         return description;
     }
     
+    /**
+     * 幻灯片不在文档中时（已删除或已撤销添加）只被本命令引用
+     */
+    @Override
+    public long estimateRetainedBytes() {
+        if (slide == null || presentation == null || presentation.indexOfSlide(slide) >= 0) {
+            return 64;
+        }
+        return 64 + slide.estimateMemoryBytes();
+    }
+    
     public Presentation getPresentation() {
         return presentation;
     }
@@ -51,4 +63,20 @@ public class RemoveSlideCommand implements Command {
     public int getOriginalIndex() {
         return originalIndex;
     }
-} 
\ No newline at end of file
+    
+    @Override
+    public byte getJournalType() {
+        return CommandJournal.REMOVE_SLIDE;
+    }
+    
+    @Override
+    public void writeTo(CommandJournal.Output out) throws IOException {
+        out.writeSlide(slide);
+        out.writeInt(originalIndex);
+    }
+    
+    static RemoveSlideCommand readFrom(CommandJournal.Input in) throws IOException {
+        Slide slide = in.readSlide();
+        return new RemoveSlideCommand(in.getPresentation(), slide, in.readInt());
+    }
+}
@@ -1,12 +1,13 @@
 package com.ppteditor.core.command;
 
 import com.ppteditor.core.model.Slide;
+import java.io.IOException;
 
 /**
  * 重命名幻灯片命令
  * 实现幻灯片名称修改的可撤销操作
  */
-public class RenameSlideCommand implements Command {
+public class RenameSlideCommand implements JournaledCommand {
     
     private final Slide slide;
     private final String oldName;
@@ -39,6 +40,11 @@ public class RenameSlideCommand implements Command {
         return description;
     }
     
+    @Override
+    public long estimateRetainedBytes() {
+        return 64 + (oldName != null ? oldName.length() * 2L : 0) + (newName != null ? newName.length() * 2L : 0);
+    }
+    
     public Slide getSlide() {
         return slide;
     }
@@ -50,4 +56,23 @@ public class RenameSlideCommand implements Command {
     public String getNewName() {
         return newName;
     }
-} 
\ No newline at end of file
+    
+    @Override
+    public byte getJournalType() {
+        return CommandJournal.RENAME_SLIDE;
+    }
+    
+    @Override
+    public void writeTo(CommandJournal.Output out) throws IOException {
+        out.writeSlide(slide);
+        out.writeString(oldName);
+        out.writeString(newName);
+    }
+    
+    static RenameSlideCommand readFrom(CommandJournal.Input in) throws IOException {
+        Slide slide = in.readSlide();
+        String oldName = in.readString();
+        String newName = in.readString();
+        return new RenameSlideCommand(slide, oldName, newName);
+    }
+}
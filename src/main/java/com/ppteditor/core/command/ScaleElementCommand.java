@@ -1,12 +1,13 @@
 package com.ppteditor.core.command;
 
 import com.ppteditor.core.model.SlideElement;
+import java.io.IOException;
 
 /**
  * 元素缩放命令
  * 支持撤销和重做操作
  */
-public class ScaleElementCommand implements Command {
+public class ScaleElementCommand implements JournaledCommand {
     
     private SlideElement<?> element;
     // 使用基本类型避免序列化问题
@@ -44,6 +45,11 @@ public class ScaleElementCommand implements Command {
         this.newRotation = newRotation;
     }
     
+    // 从撤销日志读回时使用，其余字段由readFrom填写
+    private ScaleElementCommand(SlideElement<?> element) {
+        this.element = element;
+    }
+    
     @Override
     public void execute() {
         element.setBounds(newX, newY, newWidth, newHeight);
@@ -61,6 +67,29 @@ public class ScaleElementCommand implements Command {
         return "缩放元素";
     }
     
+    /**
+     * 同一元素从上次的结果继续缩放时合并
+     */
+    @Override
+    public boolean canMergeWith(Command next) {
+        if (!(next instanceof ScaleElementCommand)) return false;
+        ScaleElementCommand other = (ScaleElementCommand) next;
+        return other.element == element
+            && other.originalX == newX && other.originalY == newY
+            && other.originalWidth == newWidth && other.originalHeight == newHeight
+            && other.originalRotation == newRotation;
+    }
+    
+    @Override
+    public void mergeWith(Command next) {
+        ScaleElementCommand other = (ScaleElementCommand) next;
+        newX = other.newX;
+        newY = other.newY;
+        newWidth = other.newWidth;
+        newHeight = other.newHeight;
+        newRotation = other.newRotation;
+    }
+    
     public SlideElement<?> getElement() {
         return element;
     }
@@ -72,4 +101,39 @@ public class ScaleElementCommand implements Command {
     public java.awt.Rectangle getNewBounds() {
         return new java.awt.Rectangle((int)newX, (int)newY, (int)newWidth, (int)newHeight);
     }
-} 
\ No newline at end of file
+    
+    @Override
+    public byte getJournalType() {
+        return CommandJournal.SCALE_ELEMENT;
+    }
+    
+    @Override
+    public void writeTo(CommandJournal.Output out) throws IOException {
+        out.writeElement(element);
+        out.writeDouble(originalX);
+        out.writeDouble(originalY);
+        out.writeDouble(originalWidth);
+        out.writeDouble(originalHeight);
+        out.writeDouble(originalRotation);
+        out.writeDouble(newX);
+        out.writeDouble(newY);
+        out.writeDouble(newWidth);
+        out.writeDouble(newHeight);
+        out.writeDouble(newRotation);
+    }
+    
+    static ScaleElementCommand readFrom(CommandJournal.Input in) throws IOException {
+        ScaleElementCommand command = new ScaleElementCommand(in.readElement());
+        command.originalX = in.readDouble();
+        command.originalY = in.readDouble();
+        command.originalWidth = in.readDouble();
+        command.originalHeight = in.readDouble();
+        command.originalRotation = in.readDouble();
+        command.newX = in.readDouble();
+        command.newY = in.readDouble();
+        command.newWidth = in.readDouble();
+        command.newHeight = in.readDouble();
+        command.newRotation = in.readDouble();
+        return command;
+    }
+}
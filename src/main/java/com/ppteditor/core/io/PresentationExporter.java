@@ -160,7 +160,8 @@ public class PresentationExporter {
             double scaleY = (double) EXPORT_HEIGHT / SlideCanvas.CANVAS_HEIGHT;
             g2d.scale(scaleX, scaleY);
             
-            // 渲染幻灯片
+            // 渲染幻灯片（导出时同步加载图片，不能使用占位符）
+            ImageLoader.getInstance().loadNow(slide);
             Dimension slideSize = new Dimension(SlideCanvas.CANVAS_WIDTH, SlideCanvas.CANVAS_HEIGHT);
             slide.render(g2d, slideSize);
             
@@ -205,6 +206,7 @@ public class PresentationExporter {
             double scaleY = (double) height / SlideCanvas.CANVAS_HEIGHT;
             g2d.scale(scaleX, scaleY);
             
+            ImageLoader.getInstance().loadNow(slide);
             Dimension slideSize = new Dimension(SlideCanvas.CANVAS_WIDTH, SlideCanvas.CANVAS_HEIGHT);
             slide.render(g2d, slideSize);
             
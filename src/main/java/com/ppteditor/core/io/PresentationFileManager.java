@@ -213,6 +213,23 @@ public class PresentationFileManager {
         }
     }
     
+    /**
+     * 把单个模型对象（元素、幻灯片、样式）写成不缩进的JSON，按声明类型写入多态类型信息
+     * 用于撤销日志等只保存文档片段的场合
+     */
+    public static byte[] writeFragment(Object value, Class<?> declaredType) throws IOException {
+        return objectMapper.writerFor(declaredType)
+            .without(SerializationFeature.INDENT_OUTPUT)
+            .writeValueAsBytes(value);
+    }
+    
+    /**
+     * 读取writeFragment写出的对象
+     */
+    public static <T> T readFragment(byte[] data, Class<T> declaredType) throws IOException {
+        return objectMapper.readValue(data, declaredType);
+    }
+    
     /**
      * 检查文件是否为支持的格式
      */
@@ -0,0 +1,84 @@
+package com.ppteditor.core.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 64位紧凑id
+ * 元素、幻灯片和演示文稿的id以long保存，只在序列化时转成16位十六进制字符串；
+ * 生成时不调用SecureRandom：进程启动时取一次随机种子，之后用原子计数器加SplitMix64混合，
+ * 同一进程内保证不重复，不同进程之间重复的概率可以忽略
+ * 旧文件中的UUID字符串折叠为64位值用于索引，原字符串由持有者保留以便原样保存
+ */
+public final class CompactId {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final int TEXT_LENGTH = 16;
+
+    private static final long SEED = ThreadLocalRandom.current().nextLong() ^ System.nanoTime();
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private CompactId() {}
+
+    /**
+     * 生成新的id，无锁、不阻塞
+     */
+    public static long next() {
+        return mix(SEED + SEQUENCE.incrementAndGet() * GOLDEN_GAMMA);
+    }
+
+    // SplitMix64的输出函数，是64位上的双射，不同输入得到不同输出
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 序列化用的字符串形式：16位小写十六进制
+     */
+    public static String toString(long id) {
+        String hex = Long.toHexString(id);
+        if (hex.length() == TEXT_LENGTH) return hex;
+        StringBuilder builder = new StringBuilder(TEXT_LENGTH);
+        for (int i = hex.length(); i < TEXT_LENGTH; i++) {
+            builder.append('0');
+        }
+        return builder.append(hex).toString();
+    }
+
+    /**
+     * 是否为本类生成的字符串形式，不是时应按旧id保留原字符串
+     */
+    public static boolean isCompact(String text) {
+        if (text == null || text.length() != TEXT_LENGTH) return false;
+        for (int i = 0; i < TEXT_LENGTH; i++) {
+            if (Character.digit(text.charAt(i), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 把字符串id转成64位值：紧凑形式直接解析，UUID取高低两半异或，其他字符串取64位FNV-1a哈希
+     */
+    public static long parse(String text) {
+        if (isCompact(text)) {
+            return Long.parseUnsignedLong(text, 16);
+        }
+        if (text.length() == 36 && text.charAt(8) == '-') {
+            try {
+                UUID uuid = UUID.fromString(text);
+                return uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+            } catch (IllegalArgumentException e) {
+                // 不是UUID，按普通字符串处理
+            }
+        }
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,229 @@
+package com.ppteditor.core.model;
+
+import java.awt.image.BufferedImage;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 元素光栅缓存
+ * 缓存元素渲染后的位图，按内容版本、缩放比例和旋转角度判断是否有效
+ * 使用LRU策略按内存和条目数量淘汰，默认关闭，需要手动开启
+ * 元素以弱引用为键，缓存不会让已删除的元素及其位图常驻内存
+ */
+public class ElementRasterCache {
+
+    private static volatile ElementRasterCache instance;
+
+    private final LinkedHashMap<ElementKey, Entry> entries;
+    private final ReferenceQueue<SlideElement<?>> collectedKeys = new ReferenceQueue<>();
+    private boolean enabled;
+    private long maxBytes;
+    private int maxEntries;
+    private long bytesHeld;
+
+    // 统计信息
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    private ElementRasterCache() {
+        // accessOrder=true，按访问顺序排列，实现LRU
+        this.entries = new LinkedHashMap<>(256, 0.75f, true);
+        this.enabled = false;
+        this.maxBytes = 64L * 1024 * 1024; // 默认64MB
+        this.maxEntries = 2048;
+    }
+
+    // 单例模式 - 双重检查锁定
+    public static ElementRasterCache getInstance() {
+        if (instance == null) {
+            synchronized (ElementRasterCache.class) {
+                if (instance == null) {
+                    instance = new ElementRasterCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 查找有效的缓存位图，未命中或已失效时返回null
+     */
+    public synchronized BufferedImage get(SlideElement<?> element, long contentVersion,
+                                          double scaleX, double scaleY, double rotation) {
+        expungeCollected();
+        Entry entry = entries.get(new ElementKey(element, null));
+        if (entry != null && entry.matches(contentVersion, scaleX, scaleY, rotation)) {
+            hitCount++;
+            return entry.image;
+        }
+        missCount++;
+        return null;
+    }
+
+    /**
+     * 存入元素的渲染位图，超出单项上限的位图不缓存
+     */
+    public synchronized void put(SlideElement<?> element, BufferedImage image, long contentVersion,
+                                 double scaleX, double scaleY, double rotation) {
+        long size = estimateBytes(image);
+        if (size > maxBytes / 4) {
+            return;
+        }
+        expungeCollected();
+        Entry old = entries.put(new ElementKey(element, collectedKeys), new Entry(image, contentVersion, scaleX, scaleY, rotation));
+        if (old != null) {
+            bytesHeld -= estimateBytes(old.image);
+        }
+        bytesHeld += size;
+        trim();
+    }
+
+    /**
+     * 移除某个元素的缓存
+     */
+    public synchronized void invalidate(SlideElement<?> element) {
+        Entry old = entries.remove(new ElementKey(element, null));
+        if (old != null) {
+            bytesHeld -= estimateBytes(old.image);
+        }
+    }
+    
+    // 移除元素已被回收的条目
+    private void expungeCollected() {
+        Reference<?> collected;
+        while ((collected = collectedKeys.poll()) != null) {
+            Entry old = entries.remove(collected);
+            if (old != null) {
+                bytesHeld -= estimateBytes(old.image);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytesHeld = 0;
+        while (collectedKeys.poll() != null) {
+            // 丢弃已清空条目的回收通知
+        }
+    }
+
+    public synchronized void resetStatistics() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<ElementKey, Entry>> iterator = entries.entrySet().iterator();
+        while ((bytesHeld > maxBytes || entries.size() > maxEntries) && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            bytesHeld -= estimateBytes(eldest.image);
+            evictionCount++;
+        }
+    }
+
+    private static long estimateBytes(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    // Getter和Setter方法
+    public synchronized boolean isEnabled() { return enabled; }
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    public synchronized long getMaxBytes() { return maxBytes; }
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+        trim();
+    }
+
+    public synchronized int getMaxEntries() { return maxEntries; }
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+        trim();
+    }
+
+    public synchronized long getHitCount() { return hitCount; }
+    public synchronized long getMissCount() { return missCount; }
+    public synchronized long getEvictionCount() { return evictionCount; }
+    public synchronized long getBytesHeld() {
+        expungeCollected();
+        return bytesHeld;
+    }
+    public synchronized int getEntryCount() {
+        expungeCollected();
+        return entries.size();
+    }
+
+    public synchronized double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        expungeCollected();
+        return String.format("ElementRasterCache[条目=%d, 内存=%dKB, 命中=%d, 未命中=%d, 淘汰=%d, 命中率=%.1f%%]",
+            entries.size(), bytesHeld / 1024, hitCount, missCount, evictionCount, getHitRate() * 100);
+    }
+
+    /**
+     * 缓存键：按元素身份比较的弱引用，元素回收后进入引用队列等待移除
+     */
+    private static final class ElementKey extends WeakReference<SlideElement<?>> {
+        private final int hash;
+
+        ElementKey(SlideElement<?> element, ReferenceQueue<SlideElement<?>> queue) {
+            super(element, queue);
+            this.hash = System.identityHashCode(element);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof ElementKey)) return false;
+            SlideElement<?> element = get();
+            return element != null && element == ((ElementKey) obj).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static class Entry {
+        final BufferedImage image;
+        final long contentVersion;
+        final double scaleX, scaleY;
+        final double rotation;
+
+        Entry(BufferedImage image, long contentVersion, double scaleX, double scaleY, double rotation) {
+            this.image = image;
+            this.contentVersion = contentVersion;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+            this.rotation = rotation;
+        }
+
+        boolean matches(long contentVersion, double scaleX, double scaleY, double rotation) {
+            return this.contentVersion == contentVersion &&
+                   Double.compare(this.scaleX, scaleX) == 0 &&
+                   Double.compare(this.scaleY, scaleY) == 0 &&
+                   Double.compare(this.rotation, rotation) == 0;
+        }
+    }
+}
@@ -17,4 +17,10 @@ public interface ElementStyle extends Cloneable {
      * @param colorTheme 配色主题
      */
     void applyColorTheme(ColorTheme colorTheme);
+    
+    /**
+     * 样式的模型版本，任何属性修改后变大
+     * @return 最近一次修改时的ModelVersion值
+     */
+    long getVersion();
 } 
\ No newline at end of file
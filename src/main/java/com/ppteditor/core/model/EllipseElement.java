@@ -78,9 +78,12 @@ public class EllipseElement extends SlideElement<ShapeStyle> implements java.io.
     }
     
     @Override
-    public boolean contains(Point point) {
-        Ellipse2D ellipse = new Ellipse2D.Double(x, y, width, height);
-        return ellipse.contains(point);
+    protected boolean containsLocal(double px, double py) {
+        if (width <= 0 || height <= 0) return false;
+        // 椭圆方程 (dx/a)^2 + (dy/b)^2 <= 1
+        double dx = (px - x) / width - 0.5;
+        double dy = (py - y) / height - 0.5;
+        return dx * dx + dy * dy <= 0.25;
     }
     
     // 静态工厂方法 - 创建特定样式的椭圆
@@ -105,7 +108,7 @@ public class EllipseElement extends SlideElement<ShapeStyle> implements java.io.
         g2d.setFont(textStyle.getFont());
         g2d.setColor(textStyle.getTextColor());
         
-        FontMetrics fm = g2d.getFontMetrics();
+        FontMetrics fm = TextMeasurer.getInstance().getFontMetrics(textStyle.getFont());
         String[] lines = text.split("\n");
         
         // 计算文本位置（居中）
@@ -148,10 +151,16 @@ public class EllipseElement extends SlideElement<ShapeStyle> implements java.io.
     
     // Getter和Setter方法
     public String getText() { return text; }
-    public void setText(String text) { this.text = text; }
+    public void setText(String text) { 
+        this.text = text; 
+        markContentChanged();
+    }
     
     public TextStyle getTextStyle() { return textStyle; }
-    public void setTextStyle(TextStyle textStyle) { this.textStyle = textStyle; }
+    public void setTextStyle(TextStyle textStyle) { 
+        this.textStyle = textStyle; 
+        markContentChanged();
+    }
     
     @Override
     public EllipseElement clone() {
@@ -0,0 +1,195 @@
+package com.ppteditor.core.model;
+
+import java.awt.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 字体注册表
+ * 按（字体族、样式、字号）复用Font对象，系统中不存在的字体族只解析一次并缓存回退结果
+ * 启动时可在后台线程预热，避免首次渲染时加载系统字体列表造成卡顿
+ */
+public class FontRegistry {
+
+    // 逻辑字体族总是可用
+    private static final Set<String> LOGICAL_FAMILIES = new HashSet<>(Arrays.asList(
+        Font.DIALOG, Font.DIALOG_INPUT, Font.SANS_SERIF, Font.SERIF, Font.MONOSPACED));
+
+    // 预热时创建的常用字体族和字号
+    private static final String[] WARM_UP_FAMILIES = {"宋体", "微软雅黑", "黑体", "Arial"};
+    private static final int[] WARM_UP_SIZES = {10, 12, 14, 16, 18, 24, 32};
+
+    private static volatile FontRegistry instance;
+
+    private final Map<FontKey, Font> fonts;
+    private final Map<String, String> resolvedFamilies;
+    private volatile Set<String> availableFamilies;
+    private final String fallbackFamily;
+
+    // 统计信息
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong fallbackCount = new AtomicLong();
+
+    private FontRegistry() {
+        this.fonts = new ConcurrentHashMap<>();
+        this.resolvedFamilies = new ConcurrentHashMap<>();
+        this.fallbackFamily = Font.SANS_SERIF;
+    }
+
+    // 单例模式 - 双重检查锁定
+    public static FontRegistry getInstance() {
+        if (instance == null) {
+            synchronized (FontRegistry.class) {
+                if (instance == null) {
+                    instance = new FontRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 取得字体，相同（字体族、样式、字号）返回同一个Font对象
+     */
+    public Font getFont(String family, int style, int size) {
+        FontKey key = new FontKey(family, style, size);
+        Font font = fonts.get(key);
+        if (font != null) {
+            hitCount.incrementAndGet();
+            return font;
+        }
+        missCount.incrementAndGet();
+        return fonts.computeIfAbsent(key, k -> new Font(resolveFamily(family), style, size));
+    }
+
+    /**
+     * 解析字体族名称，不存在的字体族返回回退字体族
+     */
+    public String resolveFamily(String family) {
+        if (family == null) {
+            return fallbackFamily;
+        }
+        String resolved = resolvedFamilies.get(family);
+        if (resolved == null) {
+            if (isFamilyAvailable(family)) {
+                resolved = family;
+            } else {
+                resolved = fallbackFamily;
+                fallbackCount.incrementAndGet();
+            }
+            resolvedFamilies.put(family, resolved);
+        }
+        return resolved;
+    }
+
+    /**
+     * 字体族是否可用：系统字体列表只含当前语言环境和通用名称，
+     * 不在列表中时再由Font自行解析，能解析到实际字体（如英文环境下的"微软雅黑"）也视为可用
+     */
+    public boolean isFamilyAvailable(String family) {
+        if (family == null) return false;
+        if (LOGICAL_FAMILIES.contains(family) || getAvailableFamilies().contains(family)) return true;
+        return !Font.DIALOG.equals(new Font(family, Font.PLAIN, 12).getFamily(Locale.ROOT));
+    }
+
+    // 加载系统字体族列表（当前语言环境和通用名称），较慢，只执行一次
+    private Set<String> getAvailableFamilies() {
+        Set<String> families = availableFamilies;
+        if (families == null) {
+            synchronized (this) {
+                families = availableFamilies;
+                if (families == null) {
+                    GraphicsEnvironment environment = GraphicsEnvironment.getLocalGraphicsEnvironment();
+                    families = new HashSet<>(Arrays.asList(environment.getAvailableFontFamilyNames()));
+                    families.addAll(Arrays.asList(environment.getAvailableFontFamilyNames(Locale.ROOT)));
+                    availableFamilies = families;
+                }
+            }
+        }
+        return families;
+    }
+
+    /**
+     * 在后台线程预热：加载系统字体族列表并创建常用字体
+     */
+    public void warmUpAsync() {
+        Thread thread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            getAvailableFamilies();
+            for (String family : WARM_UP_FAMILIES) {
+                for (int size : WARM_UP_SIZES) {
+                    getFont(family, Font.PLAIN, size);
+                    getFont(family, Font.BOLD, size);
+                }
+            }
+            System.out.println("字体预热完成，耗时 " + (System.currentTimeMillis() - start) + "ms");
+        }, "font-warm-up");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * 清除缓存的字体和解析结果（统计信息保留）
+     */
+    public void clear() {
+        fonts.clear();
+        resolvedFamilies.clear();
+    }
+
+    public void resetStatistics() {
+        hitCount.set(0);
+        missCount.set(0);
+        fallbackCount.set(0);
+    }
+
+    // Getter和Setter方法
+    public String getFallbackFamily() { return fallbackFamily; }
+
+    public long getHitCount() { return hitCount.get(); }
+    public long getMissCount() { return missCount.get(); }
+    public long getFallbackCount() { return fallbackCount.get(); }
+    public int getFontCount() { return fonts.size(); }
+
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FontRegistry[字体=%d, 命中=%d, 未命中=%d, 回退=%d, 命中率=%.1f%%]",
+            fonts.size(), getHitCount(), getMissCount(), getFallbackCount(), getHitRate() * 100);
+    }
+
+    /**
+     * 字体缓存键
+     */
+    private static final class FontKey {
+        final String family;
+        final int style;
+        final int size;
+
+        FontKey(String family, int style, int size) {
+            this.family = family;
+            this.style = style;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof FontKey)) return false;
+            FontKey other = (FontKey) obj;
+            return style == other.style && size == other.size && Objects.equals(family, other.family);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(family, style, size);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.ppteditor.core.model;
+
+import com.ppteditor.core.model.IconElement.IconType;
+import java.awt.*;
+import java.awt.geom.*;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 图标形状表
+ * 每种图标类型在单位正方形中只构建一次，按元素边界变换得到实际形状；
+ * 单位形状创建后不再修改，可在多个元素和导出线程之间共享
+ */
+public final class IconShapes {
+
+    private static final Map<IconType, Shape> UNIT_SHAPES = new EnumMap<>(IconType.class);
+
+    static {
+        for (IconType type : IconType.values()) {
+            UNIT_SHAPES.put(type, createUnitShape(type));
+        }
+    }
+
+    private IconShapes() {}
+
+    /**
+     * 按元素边界生成图标形状
+     */
+    public static Shape createShape(IconType type, double x, double y, double width, double height) {
+        AffineTransform transform;
+        if (isUniform(type)) {
+            // 正多边形保持比例，以较短边为准居中
+            double size = Math.min(width, height);
+            transform = new AffineTransform(size, 0, 0, size, x + (width - size) / 2, y + (height - size) / 2);
+        } else {
+            transform = new AffineTransform(width, 0, 0, height, x, y);
+        }
+        return transform.createTransformedShape(getUnitShape(type));
+    }
+
+    public static Shape getUnitShape(IconType type) {
+        Shape shape = UNIT_SHAPES.get(type);
+        return shape != null ? shape : UNIT_SHAPES.get(IconType.SQUARE_DOT);
+    }
+
+    /**
+     * 对勾、叉号、加号、减号只有线条，没有填充区域
+     */
+    public static boolean isLineIcon(IconType type) {
+        return type == IconType.CHECK || type == IconType.CROSS ||
+               type == IconType.PLUS || type == IconType.MINUS;
+    }
+
+    // 星形和正多边形不随宽高比拉伸
+    private static boolean isUniform(IconType type) {
+        return type == IconType.STAR || type == IconType.PENTAGON || type == IconType.HEXAGON;
+    }
+
+    private static Shape createUnitShape(IconType type) {
+        switch (type) {
+            case ARROW_RIGHT:
+                return polygon(0, 0.25, 0.75, 0.25, 0.75, 0, 1, 0.5, 0.75, 1, 0.75, 0.75, 0, 0.75);
+            case ARROW_LEFT:
+                return polygon(1, 0.25, 0.25, 0.25, 0.25, 0, 0, 0.5, 0.25, 1, 0.25, 0.75, 1, 0.75);
+            case ARROW_UP:
+                return polygon(0.25, 1, 0.25, 0.25, 0, 0.25, 0.5, 0, 1, 0.25, 0.75, 0.25, 0.75, 1);
+            case ARROW_DOWN:
+                return polygon(0.25, 0, 0.25, 0.75, 0, 0.75, 0.5, 1, 1, 0.75, 0.75, 0.75, 0.75, 0);
+            case STAR:
+                return createStar();
+            case HEART:
+                return createHeart();
+            case TRIANGLE:
+                return polygon(0.5, 0, 1, 1, 0, 1);
+            case DIAMOND:
+                return polygon(0.5, 0, 1, 0.5, 0.5, 1, 0, 0.5);
+            case PENTAGON:
+                return createRegularPolygon(5, -Math.PI / 2);
+            case HEXAGON:
+                return createRegularPolygon(6, 0);
+            case CHECK:
+                return lines(new double[]{0.2, 0.5, 0.4, 0.7, 0.8, 0.3});
+            case CROSS:
+                return lines(new double[]{0.2, 0.2, 0.8, 0.8}, new double[]{0.8, 0.2, 0.2, 0.8});
+            case PLUS:
+                return lines(new double[]{0.5, 0.2, 0.5, 0.8}, new double[]{0.2, 0.5, 0.8, 0.5});
+            case MINUS:
+                return lines(new double[]{0.2, 0.5, 0.8, 0.5});
+            case CIRCLE_DOT:
+                return new Ellipse2D.Double(0, 0, 1, 1);
+            case SQUARE_DOT:
+            default:
+                return new Rectangle2D.Double(0, 0, 1, 1);
+        }
+    }
+
+    // 闭合多边形，参数为依次排列的x、y坐标
+    private static Shape polygon(double... coords) {
+        Path2D.Double path = new Path2D.Double();
+        path.moveTo(coords[0], coords[1]);
+        for (int i = 2; i < coords.length; i += 2) {
+            path.lineTo(coords[i], coords[i + 1]);
+        }
+        path.closePath();
+        return path;
+    }
+
+    // 不闭合的折线，每个数组为一段
+    private static Shape lines(double[]... strokes) {
+        Path2D.Double path = new Path2D.Double();
+        for (double[] coords : strokes) {
+            path.moveTo(coords[0], coords[1]);
+            for (int i = 2; i < coords.length; i += 2) {
+                path.lineTo(coords[i], coords[i + 1]);
+            }
+        }
+        return path;
+    }
+
+    private static Shape createStar() {
+        Path2D.Double star = new Path2D.Double();
+        double outerRadius = 0.45;
+        double innerRadius = outerRadius * 0.4;
+        for (int i = 0; i < 10; i++) {
+            double angle = Math.PI * i / 5.0 - Math.PI / 2;
+            double radius = (i % 2 == 0) ? outerRadius : innerRadius;
+            double px = 0.5 + radius * Math.cos(angle);
+            double py = 0.5 + radius * Math.sin(angle);
+            if (i == 0) {
+                star.moveTo(px, py);
+            } else {
+                star.lineTo(px, py);
+            }
+        }
+        star.closePath();
+        return star;
+    }
+
+    private static Shape createRegularPolygon(int sides, double startAngle) {
+        Path2D.Double polygon = new Path2D.Double();
+        double radius = 0.45;
+        for (int i = 0; i < sides; i++) {
+            double angle = Math.PI * 2 * i / sides + startAngle;
+            double px = 0.5 + radius * Math.cos(angle);
+            double py = 0.5 + radius * Math.sin(angle);
+            if (i == 0) {
+                polygon.moveTo(px, py);
+            } else {
+                polygon.lineTo(px, py);
+            }
+        }
+        polygon.closePath();
+        return polygon;
+    }
+
+    private static Shape createHeart() {
+        Path2D.Double heart = new Path2D.Double();
+        double centerX = 0.5;
+        double topY = 0.2;
+        double bottomY = 0.9;
+
+        // 左半心
+        heart.moveTo(centerX, bottomY);
+        heart.curveTo(0.1, 0.6, 0.1, topY, 0.3, topY);
+        heart.curveTo(0.45, topY, centerX, 0.4, centerX, 0.4);
+
+        // 右半心
+        heart.curveTo(centerX, 0.4, 0.55, topY, 0.7, topY);
+        heart.curveTo(0.9, topY, 0.9, 0.6, centerX, bottomY);
+
+        heart.closePath();
+        return heart;
+    }
+}
@@ -0,0 +1,342 @@
+package com.ppteditor.core.model;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * 全局图片解码缓存
+ * 以规范路径、修改时间和文件大小为键，同一张图片只解码一次并在多个图片元素之间共享
+ * 被引用的图片始终保留；引用计数归零后按LRU保留在内存预算内，超出预算只保留软引用，由GC决定是否回收
+ * 大图解码时按需要的最大尺寸（默认为1920x1080导出尺寸）整数倍下采样，并以多分辨率金字塔保存
+ */
+public class ImageCache {
+
+    private static volatile ImageCache instance;
+
+    private final LinkedHashMap<ImageKey, CacheEntry> entries;
+    private long maxUnreferencedBytes;
+    private int maxDecodeWidth;
+    private int maxDecodeHeight;
+
+    // 统计信息
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    private ImageCache() {
+        // accessOrder=true，按访问顺序排列，实现LRU
+        this.entries = new LinkedHashMap<>(64, 0.75f, true);
+        this.maxUnreferencedBytes = 128L * 1024 * 1024; // 默认128MB
+        // 幻灯片导出分辨率，任何使用场景都不需要更大的图片
+        this.maxDecodeWidth = 1920;
+        this.maxDecodeHeight = 1080;
+    }
+
+    // 单例模式 - 双重检查锁定
+    public static ImageCache getInstance() {
+        if (instance == null) {
+            synchronized (ImageCache.class) {
+                if (instance == null) {
+                    instance = new ImageCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 取得图片并增加引用计数，使用完毕后需调用ImageHandle.release()
+     */
+    public ImageHandle acquire(String imagePath) throws IOException {
+        File file = new File(imagePath);
+        if (!file.exists()) {
+            throw new IOException("图片文件不存在: " + imagePath);
+        }
+        ImageKey key = new ImageKey(file.getCanonicalPath(), file.lastModified(), file.length());
+
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+            ImagePyramid image = entry != null ? entry.getImage() : null;
+            if (image != null) {
+                hitCount++;
+                entry.retain(image);
+                return new ImageHandle(this, entry, image);
+            }
+        }
+
+        // 在锁外解码，避免阻塞其他图片的查找
+        ImagePyramid decoded = decode(file);
+
+        synchronized (this) {
+            missCount++;
+            CacheEntry entry = entries.get(key);
+            ImagePyramid image = entry != null ? entry.getImage() : null;
+            if (image == null) {
+                // 同一图片可能已被并发解码，只在没有可用结果时登记
+                image = decoded;
+                entry = new CacheEntry(key, image);
+                entries.put(key, entry);
+            }
+            entry.retain(image);
+            trim();
+            return new ImageHandle(this, entry, image);
+        }
+    }
+
+    /**
+     * 通过ImageReader解码，超过最大解码尺寸时使用源下采样，只读取需要的像素
+     */
+    private ImagePyramid decode(File file) throws IOException {
+        int maxWidth;
+        int maxHeight;
+        synchronized (this) {
+            maxWidth = maxDecodeWidth;
+            maxHeight = maxDecodeHeight;
+        }
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("无法读取图片文件: " + file.getPath());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = computeSubsampling(sourceWidth, sourceHeight, maxWidth, maxHeight);
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                BufferedImage image = reader.read(0, param);
+                if (image == null) {
+                    throw new IOException("无法读取图片文件: " + file.getPath());
+                }
+                return new ImagePyramid(image, sourceWidth, sourceHeight);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    // 最大的整数下采样倍数，保证结果仍能覆盖最大解码尺寸
+    static int computeSubsampling(int sourceWidth, int sourceHeight, int maxWidth, int maxHeight) {
+        int factor = Math.min(sourceWidth / Math.max(1, maxWidth), sourceHeight / Math.max(1, maxHeight));
+        return Math.max(1, factor);
+    }
+
+    // 释放一次引用
+    private synchronized void release(CacheEntry entry) {
+        entry.refCount--;
+        if (entry.refCount <= 0) {
+            entry.refCount = 0;
+            trim();
+        }
+    }
+
+    // 当前引用计数
+    private synchronized int referenceCount(CacheEntry entry) {
+        return entry.refCount;
+    }
+
+    // 增加一次引用（复制元素时共享图片）
+    private synchronized void retain(CacheEntry entry, ImagePyramid image) {
+        entry.retain(image);
+    }
+
+    /**
+     * 按内存预算淘汰未被引用的图片：从最久未使用的开始降级为软引用，软引用已被回收的条目直接移除
+     */
+    private void trim() {
+        long unreferencedBytes = 0;
+        for (CacheEntry entry : entries.values()) {
+            if (entry.refCount == 0 && entry.image != null) {
+                unreferencedBytes += entry.bytes;
+            }
+        }
+
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            CacheEntry entry = iterator.next();
+            if (entry.refCount > 0) continue;
+            if (entry.image != null && unreferencedBytes > maxUnreferencedBytes) {
+                entry.image = null; // 只保留软引用
+                unreferencedBytes -= entry.bytes;
+                evictionCount++;
+            }
+            if (entry.image == null && entry.softImage.get() == null) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 清除所有未被引用的图片
+     */
+    public synchronized void clearUnreferenced() {
+        entries.values().removeIf(entry -> entry.refCount == 0);
+    }
+
+    public synchronized void resetStatistics() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    // Getter和Setter方法
+    public synchronized long getMaxUnreferencedBytes() { return maxUnreferencedBytes; }
+    public synchronized void setMaxUnreferencedBytes(long maxUnreferencedBytes) {
+        this.maxUnreferencedBytes = Math.max(0, maxUnreferencedBytes);
+        trim();
+    }
+
+    /**
+     * 设置解码的最大尺寸，只影响之后解码的图片
+     */
+    public synchronized void setMaxDecodeSize(int maxWidth, int maxHeight) {
+        this.maxDecodeWidth = Math.max(1, maxWidth);
+        this.maxDecodeHeight = Math.max(1, maxHeight);
+    }
+    public synchronized int getMaxDecodeWidth() { return maxDecodeWidth; }
+    public synchronized int getMaxDecodeHeight() { return maxDecodeHeight; }
+
+    public synchronized long getHitCount() { return hitCount; }
+    public synchronized long getMissCount() { return missCount; }
+    public synchronized long getEvictionCount() { return evictionCount; }
+    public synchronized int getEntryCount() { return entries.size(); }
+
+    /**
+     * 当前强引用持有的图片内存（估算）
+     */
+    public synchronized long getBytesHeld() {
+        long bytes = 0;
+        for (CacheEntry entry : entries.values()) {
+            if (entry.image != null) {
+                bytes += entry.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    public synchronized int getReferencedCount() {
+        int count = 0;
+        for (CacheEntry entry : entries.values()) {
+            if (entry.refCount > 0) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("ImageCache[图片=%d, 被引用=%d, 内存=%dKB, 命中=%d, 未命中=%d, 淘汰=%d]",
+            entries.size(), getReferencedCount(), getBytesHeld() / 1024, hitCount, missCount, evictionCount);
+    }
+
+    /**
+     * 图片引用句柄，每个使用图片的元素持有一个，release后不再计入引用
+     */
+    public static class ImageHandle {
+        private final ImageCache cache;
+        private final CacheEntry entry;
+        private final ImagePyramid image;
+        private boolean released;
+
+        private ImageHandle(ImageCache cache, CacheEntry entry, ImagePyramid image) {
+            this.cache = cache;
+            this.entry = entry;
+            this.image = image;
+        }
+
+        public BufferedImage getImage() { return image.getBase(); }
+
+        public ImagePyramid getPyramid() { return image; }
+
+        public String getCanonicalPath() { return entry.key.canonicalPath; }
+
+        /**
+         * 当前共享这张图片的句柄数
+         */
+        public int getReferenceCount() { return cache.referenceCount(entry); }
+
+        /**
+         * 创建共享同一图片的新句柄
+         */
+        public ImageHandle retain() {
+            cache.retain(entry, image);
+            return new ImageHandle(cache, entry, image);
+        }
+
+        public synchronized void release() {
+            if (!released) {
+                released = true;
+                cache.release(entry);
+            }
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static class CacheEntry {
+        final ImageKey key;
+        final long bytes;
+        final SoftReference<ImagePyramid> softImage;
+        ImagePyramid image; // 强引用，被引用或在预算内时保留
+        int refCount;
+
+        CacheEntry(ImageKey key, ImagePyramid image) {
+            this.key = key;
+            this.bytes = image.estimateBytes();
+            this.softImage = new SoftReference<>(image);
+            this.image = image;
+        }
+
+        ImagePyramid getImage() {
+            return image != null ? image : softImage.get();
+        }
+
+        void retain(ImagePyramid image) {
+            this.image = image; // 重新被引用时恢复强引用
+            refCount++;
+        }
+    }
+
+    /**
+     * 缓存键：规范路径 + 修改时间 + 文件大小，文件被替换后自动失效
+     */
+    private static final class ImageKey {
+        final String canonicalPath;
+        final long lastModified;
+        final long length;
+
+        ImageKey(String canonicalPath, long lastModified, long length) {
+            this.canonicalPath = canonicalPath;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof ImageKey)) return false;
+            ImageKey other = (ImageKey) obj;
+            return lastModified == other.lastModified && length == other.length &&
+                   canonicalPath.equals(other.canonicalPath);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(canonicalPath, lastModified, length);
+        }
+    }
+}
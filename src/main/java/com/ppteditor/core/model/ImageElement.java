@@ -1,11 +1,12 @@
 package com.ppteditor.core.model;
 
 import com.ppteditor.core.enums.ElementType;
-import javax.imageio.ImageIO;
 import java.awt.*;
+import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.Cleaner;
 
 /**
  * 图片元素类
@@ -13,8 +14,20 @@ import java.io.IOException;
  */
 public class ImageElement extends SlideElement<ShapeStyle> implements java.io.Serializable {
     
+    // 元素被回收时自动释放图片缓存中的引用
+    private static final Cleaner CLEANER = Cleaner.create();
+    
+    // 占位符边框
+    private static final Stroke PLACEHOLDER_STROKE =
+        new BasicStroke(1, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, new float[]{5}, 0);
+    private static final Stroke ERROR_STROKE = new BasicStroke(2);
+    
     private String imagePath;
     private transient BufferedImage image;
+    private transient ImagePyramid pyramid; // 多分辨率图片，绘制时选择合适的一级
+    private transient ImageCache.ImageHandle imageHandle; // 共享图片缓存中的引用
+    private transient Cleaner.Cleanable cleanable;
+    private transient boolean imageLoadFailed; // 加载失败后不再重复请求
     private boolean maintainAspectRatio;
     
     public ImageElement() {
@@ -34,22 +47,25 @@ public class ImageElement extends SlideElement<ShapeStyle> implements java.io.Se
     }
     
     public void loadImage(String imagePath) throws IOException {
-        File file = new File(imagePath);
-        if (!file.exists()) {
-            throw new IOException("图片文件不存在: " + imagePath);
-        }
-        
-        this.imagePath = imagePath;
-        this.image = ImageIO.read(file);
+        // 通过共享缓存取得图片，同一文件只解码一次
+        ImageCache.ImageHandle handle = ImageCache.getInstance().acquire(imagePath);
         
-        if (image == null) {
-            throw new IOException("无法读取图片文件: " + imagePath);
+        if (!imagePath.equals(this.imagePath)) {
+            this.imagePath = imagePath;
+            touch();
         }
+        applyImage(handle);
+    }
+    
+    // 使用已解码的图片（同步加载或后台加载完成时调用）
+    void applyImage(ImageCache.ImageHandle handle) {
+        attachImage(handle);
+        imageLoadFailed = false;
         
         // 自动设置元素大小为图片原始大小（可能需要缩放）
         if (width == 0 || height == 0) {
-            width = image.getWidth();
-            height = image.getHeight();
+            width = pyramid.getSourceWidth();
+            height = pyramid.getSourceHeight();
             
             // 如果图片太大，缩放到合适大小
             double maxWidth = 400;
@@ -63,19 +79,24 @@ public class ImageElement extends SlideElement<ShapeStyle> implements java.io.Se
                 width *= scale;
                 height *= scale;
             }
+            notifyGeometryChanged();
         }
+        // 解码完成只影响外观，不改变模型版本
+        contentVersion++;
     }
     
     @Override
     public void render(Graphics2D g2d) {
-        if (image == null && imagePath != null) {
-            try {
-                loadImage(imagePath);
-            } catch (IOException e) {
-                // 加载失败，绘制错误提示
-                renderErrorPlaceholder(g2d);
-                return;
-            }
+        if (imageLoadFailed) {
+            // 加载失败，绘制错误提示
+            renderErrorPlaceholder(g2d);
+            return;
+        }
+        if (needsImageLoad()) {
+            // 在后台解码，完成前先绘制占位符
+            ImageLoader.getInstance().requestImage(this);
+            renderPlaceholder(g2d);
+            return;
         }
         
         if (image == null) {
@@ -87,8 +108,12 @@ public class ImageElement extends SlideElement<ShapeStyle> implements java.io.Se
         g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         
-        // 绘制图片
-        g2d.drawImage(image, (int)x, (int)y, (int)width, (int)height, null);
+        // 按设备像素尺寸选择金字塔中最接近的一级绘制
+        AffineTransform transform = g2d.getTransform();
+        double scaleX = Math.hypot(transform.getScaleX(), transform.getShearY());
+        double scaleY = Math.hypot(transform.getShearX(), transform.getScaleY());
+        BufferedImage level = pyramid.getLevel(width * scaleX, height * scaleY);
+        g2d.drawImage(level, (int)x, (int)y, (int)width, (int)height, null);
         
         // 绘制边框（如果有）
         if (style != null) {
@@ -107,12 +132,12 @@ public class ImageElement extends SlideElement<ShapeStyle> implements java.io.Se
         g2d.fillRect((int)x, (int)y, (int)width, (int)height);
         
         g2d.setColor(Color.GRAY);
-        g2d.setStroke(new BasicStroke(1, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, new float[]{5}, 0));
+        g2d.setStroke(PLACEHOLDER_STROKE);
         g2d.drawRect((int)x, (int)y, (int)width, (int)height);
         
         // 绘制图片图标
         g2d.setColor(Color.DARK_GRAY);
-        g2d.setFont(new Font("微软雅黑", Font.PLAIN, 12));
+        g2d.setFont(FontRegistry.getInstance().getFont("微软雅黑", Font.PLAIN, 12));
         FontMetrics fm = g2d.getFontMetrics();
         String text = "图片";
         int textX = (int)(x + (width - fm.stringWidth(text)) / 2);
@@ -126,12 +151,12 @@ public class ImageElement extends SlideElement<ShapeStyle> implements java.io.Se
         g2d.fillRect((int)x, (int)y, (int)width, (int)height);
         
         g2d.setColor(Color.RED);
-        g2d.setStroke(new BasicStroke(2));
+        g2d.setStroke(ERROR_STROKE);
         g2d.drawRect((int)x, (int)y, (int)width, (int)height);
         
         // 绘制错误信息
         g2d.setColor(Color.RED);
-        g2d.setFont(new Font("微软雅黑", Font.PLAIN, 10));
+        g2d.setFont(FontRegistry.getInstance().getFont("微软雅黑", Font.PLAIN, 10));
         FontMetrics fm = g2d.getFontMetrics();
         String text = "图片加载失败";
         int textX = (int)(x + (width - fm.stringWidth(text)) / 2);
@@ -153,16 +178,11 @@ public class ImageElement extends SlideElement<ShapeStyle> implements java.io.Se
         return getSimpleBounds();
     }
     
-    @Override
-    public boolean contains(Point point) {
-        return getBounds().contains(point);
-    }
-    
     @Override
     public void setSize(double width, double height) {
         if (maintainAspectRatio && image != null) {
             // 保持宽高比
-            double imageRatio = (double)image.getWidth() / image.getHeight();
+            double imageRatio = (double)pyramid.getSourceWidth() / pyramid.getSourceHeight();
             double requestedRatio = width / height;
             
             if (requestedRatio > imageRatio) {
@@ -178,6 +198,8 @@ public class ImageElement extends SlideElement<ShapeStyle> implements java.io.Se
             this.width = width;
             this.height = height;
         }
+        markContentChanged();
+        notifyGeometryChanged();
     }
     
     // 静态工厂方法
@@ -192,18 +214,70 @@ public class ImageElement extends SlideElement<ShapeStyle> implements java.io.Se
     @Override
     public ImageElement clone() {
         ImageElement cloned = (ImageElement) super.clone();
-        // 图片对象可以共享，不需要深拷贝
+        // 图片对象通过缓存共享，副本持有自己的引用
+        cloned.imageHandle = null;
+        cloned.cleanable = null;
+        cloned.image = null;
+        cloned.pyramid = null;
+        if (imageHandle != null) {
+            cloned.attachImage(imageHandle.retain());
+        }
         return cloned;
     }
     
+    // 持有新的图片引用，释放原有引用
+    private void attachImage(ImageCache.ImageHandle handle) {
+        releaseImage();
+        this.imageHandle = handle;
+        this.image = handle.getImage();
+        this.pyramid = handle.getPyramid();
+        this.cleanable = CLEANER.register(this, handle::release);
+    }
+    
+    boolean needsImageLoad() {
+        return image == null && imagePath != null && !imageLoadFailed;
+    }
+    
+    void markImageLoadFailed() {
+        imageLoadFailed = true;
+        contentVersion++;
+    }
+    
+    private void releaseImage() {
+        if (cleanable != null) {
+            cleanable.clean(); // 释放引用，之后不会再次执行
+            cleanable = null;
+        }
+        imageHandle = null;
+        image = null;
+        pyramid = null;
+    }
+    
     // Getter和Setter
+    /**
+     * 图片金字塔由所有使用同一图片的元素共享，只有本元素持有最后一个引用时才计入：
+     * 此时丢弃本元素（如撤销历史中已删除的元素）才能真正释放图片
+     */
+    @Override
+    public long estimateMemoryBytes() {
+        long bytes = super.estimateMemoryBytes() + estimateStringBytes(imagePath);
+        ImageCache.ImageHandle handle = imageHandle;
+        ImagePyramid current = pyramid;
+        if (handle != null && current != null && handle.getReferenceCount() <= 1) {
+            bytes += current.estimateBytes();
+        }
+        return bytes;
+    }
+    
     public String getImagePath() {
         return imagePath;
     }
     
     public void setImagePath(String imagePath) {
         this.imagePath = imagePath;
-        this.image = null; // 清除缓存，下次渲染时重新加载
+        releaseImage(); // 清除缓存，下次渲染时重新加载
+        imageLoadFailed = false;
+        markContentChanged();
     }
     
     @com.fasterxml.jackson.annotation.JsonIgnore
@@ -217,6 +291,7 @@ public class ImageElement extends SlideElement<ShapeStyle> implements java.io.Se
     
     public void setMaintainAspectRatio(boolean maintainAspectRatio) {
         this.maintainAspectRatio = maintainAspectRatio;
+        touch();
     }
     
     /**
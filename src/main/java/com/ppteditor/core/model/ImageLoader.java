@@ -0,0 +1,186 @@
+package com.ppteditor.core.model;
+
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片异步加载器
+ * 在有界的后台线程池中解码图片，绘制线程只绘制占位符；解码完成后在事件分发线程中把图片交给元素并通知监听器重绘
+ * 同一路径同时只解码一次，等待同一图片的元素共享结果
+ */
+public class ImageLoader {
+
+    private static volatile ImageLoader instance;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, List<ImageElement>> pending; // 路径 -> 等待该图片的元素
+    private final List<ImageLoadListener> listeners;
+
+    private ImageLoader() {
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "image-decoder-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        this.pending = new HashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    // 单例模式 - 双重检查锁定
+    public static ImageLoader getInstance() {
+        if (instance == null) {
+            synchronized (ImageLoader.class) {
+                if (instance == null) {
+                    instance = new ImageLoader();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 请求在后台加载元素的图片，已在加载中的路径不会重复解码
+     */
+    public void requestImage(ImageElement element) {
+        String path = element.getImagePath();
+        if (path == null || !element.needsImageLoad()) {
+            return;
+        }
+        synchronized (pending) {
+            List<ImageElement> waiting = pending.get(path);
+            if (waiting != null) {
+                if (!containsIdentity(waiting, element)) {
+                    waiting.add(element);
+                }
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(element);
+            pending.put(path, waiting);
+        }
+        executor.execute(() -> decode(path));
+    }
+
+    /**
+     * 预取幻灯片中的所有图片
+     */
+    public void prefetch(Slide slide) {
+        if (slide == null) return;
+        for (int i = 0; i < slide.getElementCount(); i++) {
+            SlideElement<?> element = slide.getElement(i);
+            if (element instanceof ImageElement) {
+                requestImage((ImageElement) element);
+            }
+        }
+    }
+
+    /**
+     * 预取当前幻灯片及其前后相邻幻灯片的图片，当前幻灯片优先
+     */
+    public void prefetchAround(List<Slide> slides, int index) {
+        for (int i : new int[]{index, index + 1, index - 1}) {
+            if (i >= 0 && i < slides.size()) {
+                prefetch(slides.get(i));
+            }
+        }
+    }
+
+    /**
+     * 在当前线程同步加载幻灯片中的图片，用于导出等离屏渲染
+     */
+    public void loadNow(Slide slide) {
+        if (slide == null) return;
+        for (int i = 0; i < slide.getElementCount(); i++) {
+            SlideElement<?> element = slide.getElement(i);
+            if (element instanceof ImageElement) {
+                ImageElement imageElement = (ImageElement) element;
+                if (imageElement.needsImageLoad()) {
+                    try {
+                        imageElement.loadImage(imageElement.getImagePath());
+                    } catch (IOException e) {
+                        imageElement.markImageLoadFailed();
+                    }
+                }
+            }
+        }
+    }
+
+    // 后台线程：解码图片，结果交给事件分发线程
+    private void decode(String path) {
+        ImageCache.ImageHandle handle = null;
+        try {
+            handle = ImageCache.getInstance().acquire(path);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("图片加载失败: " + path + " - " + e.getMessage());
+        }
+        ImageCache.ImageHandle result = handle;
+        SwingUtilities.invokeLater(() -> deliver(path, result));
+    }
+
+    // 事件分发线程：把图片交给仍然需要它的元素
+    private void deliver(String path, ImageCache.ImageHandle handle) {
+        List<ImageElement> waiting;
+        synchronized (pending) {
+            waiting = pending.remove(path);
+        }
+        if (waiting == null) {
+            waiting = Collections.emptyList();
+        }
+        for (ImageElement element : waiting) {
+            // 等待期间路径已改变或已同步加载的元素跳过
+            if (!path.equals(element.getImagePath()) || !element.needsImageLoad()) {
+                continue;
+            }
+            if (handle != null) {
+                element.applyImage(handle.retain());
+            } else {
+                element.markImageLoadFailed();
+            }
+            for (ImageLoadListener listener : listeners) {
+                listener.imageLoaded(element);
+            }
+        }
+        if (handle != null) {
+            handle.release();
+        }
+    }
+
+    private static boolean containsIdentity(List<ImageElement> elements, ImageElement element) {
+        for (ImageElement e : elements) {
+            if (e == element) return true;
+        }
+        return false;
+    }
+
+    public void addImageLoadListener(ImageLoadListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeImageLoadListener(ImageLoadListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * 图片加载完成监听器，在事件分发线程中调用
+     */
+    public interface ImageLoadListener {
+        void imageLoaded(ImageElement element);
+    }
+}
@@ -0,0 +1,92 @@
+package com.ppteditor.core.model;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 图片多分辨率金字塔
+ * 第0级为解码结果，之后每级宽高减半，按需生成；绘制时选择不小于目标尺寸的最小一级，
+ * 画布缩放、缩略图和导出都只需做不超过2倍的缩小
+ */
+public class ImagePyramid {
+
+    // 最小一级的长边不小于该值（缩略图宽度为120）
+    private static final int MIN_LEVEL_SIZE = 64;
+
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final List<BufferedImage> levels;
+
+    public ImagePyramid(BufferedImage base, int sourceWidth, int sourceHeight) {
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.levels = new ArrayList<>();
+        levels.add(base);
+    }
+
+    /**
+     * 解码后的最高分辨率图片
+     */
+    public BufferedImage getBase() {
+        return levels.get(0);
+    }
+
+    /**
+     * 取得绘制到指定设备像素尺寸时最合适的一级
+     */
+    public synchronized BufferedImage getLevel(double targetWidth, double targetHeight) {
+        BufferedImage level = levels.get(0);
+        int index = 0;
+        while (true) {
+            int nextWidth = level.getWidth() / 2;
+            int nextHeight = level.getHeight() / 2;
+            // 下一级已小于目标尺寸或已到最小一级时停止
+            if (nextWidth < targetWidth || nextHeight < targetHeight ||
+                Math.max(nextWidth, nextHeight) < MIN_LEVEL_SIZE) {
+                return level;
+            }
+            index++;
+            if (index == levels.size()) {
+                levels.add(downsample(level, nextWidth, nextHeight));
+            }
+            level = levels.get(index);
+        }
+    }
+
+    // 双线性插值缩小一半，相当于2x2盒式滤波
+    private static BufferedImage downsample(BufferedImage source, int width, int height) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage result = new BufferedImage(Math.max(1, width), Math.max(1, height), type);
+        Graphics2D g2d = result.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.drawImage(source, 0, 0, result.getWidth(), result.getHeight(), null);
+        } finally {
+            g2d.dispose();
+        }
+        return result;
+    }
+
+    /**
+     * 原始图片宽度（解码前）
+     */
+    public int getSourceWidth() { return sourceWidth; }
+
+    /**
+     * 原始图片高度（解码前）
+     */
+    public int getSourceHeight() { return sourceHeight; }
+
+    public synchronized int getLevelCount() { return levels.size(); }
+
+    /**
+     * 估算内存：完整金字塔约为第0级的4/3
+     */
+    public long estimateBytes() {
+        BufferedImage base = getBase();
+        return (long) base.getWidth() * base.getHeight() * 4 * 4 / 3;
+    }
+}
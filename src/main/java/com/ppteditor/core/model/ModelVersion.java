@@ -0,0 +1,30 @@
+package com.ppteditor.core.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 模型版本时钟
+ * 全局单调递增；元素、样式、幻灯片和演示文稿修改时记录当前时钟值作为自己的版本，
+ * 上层对象的版本取自身与所有下层对象的最大值
+ * 使用方式：渲染、生成缩略图或保存时记下对象的getVersion()，之后用isChangedSince(记下的值)判断是否需要重新处理
+ */
+public final class ModelVersion {
+
+    private static final AtomicLong CLOCK = new AtomicLong();
+
+    private ModelVersion() {}
+
+    /**
+     * 取得新的版本号，严格大于之前发出的所有版本号
+     */
+    public static long next() {
+        return CLOCK.incrementAndGet();
+    }
+
+    /**
+     * 当前时钟值，此后的任何修改得到的版本都大于该值
+     */
+    public static long current() {
+        return CLOCK.get();
+    }
+}
@@ -14,7 +14,9 @@ import java.util.stream.Collectors;
 public class Presentation implements Cloneable {
     
     @Serializable(required = true)
-    private String id;
+    private long id;
+    
+    private String legacyId; // 旧文件的原始id字符串
     
     @Serializable(required = true)
     private String title;
@@ -43,6 +45,11 @@ public class Presentation implements Cloneable {
     private int currentSlideIndex;
     private transient String filePath;
     private transient boolean modified;
+    private transient List<Slide> slideView; // slides的只读视图，随slides替换
+    private transient Map<String, Object> metadataView; // metadata的只读视图，随metadata替换
+    private transient PresentationIndex idIndex; // 元素id和幻灯片id索引
+    private transient long version; // 文档自身的模型版本：属性和幻灯片增删、移动时更新
+    private transient long savedVersion; // 最近一次保存时的ModelVersion时钟值
     
     @Serializable
     private AnimationType transitionAnimation;
@@ -50,8 +57,11 @@ public class Presentation implements Cloneable {
     @Serializable
     private int transitionDuration;
     
+    @Serializable
+    private int undoHistorySize; // 该文档的撤销历史条数，0表示使用默认值
+    
     public Presentation() {
-        this.id = UUID.randomUUID().toString();
+        this.id = CompactId.next();
         this.title = "新建演示文稿";
         this.author = System.getProperty("user.name");
         this.createdTime = new Date();
@@ -60,6 +70,9 @@ public class Presentation implements Cloneable {
         this.colorTheme = ColorTheme.createDefaultTheme();
         this.slideMaster = SlideMaster.createDefaultMaster(); // 创建默认母版
         this.metadata = new HashMap<>();
+        this.slideView = Collections.unmodifiableList(slides);
+        this.metadataView = Collections.unmodifiableMap(metadata);
+        this.idIndex = new PresentationIndex();
         this.currentSlideIndex = 0;
         this.modified = false;
         this.transitionAnimation = AnimationType.NONE;
@@ -80,10 +93,11 @@ public class Presentation implements Cloneable {
     public void addSlide(Slide slide) {
         if (slide != null) {
             // 如果有母版且幻灯片没有应用过母版，则应用母版
-            if (slideMaster != null && slide.getElements().stream().noneMatch(element -> element.isLocked())) {
+            if (slideMaster != null && slide.getElementView().stream().noneMatch(element -> element.isLocked())) {
                 slideMaster.applyToSlide(slide);
             }
             slides.add(slide);
+            idIndex.attachSlide(slide);
             markAsModified();
         }
     }
@@ -91,10 +105,11 @@ public class Presentation implements Cloneable {
     public void addSlide(int index, Slide slide) {
         if (slide != null && index >= 0 && index <= slides.size()) {
             // 如果有母版且幻灯片没有应用过母版，则应用母版
-            if (slideMaster != null && slide.getElements().stream().noneMatch(element -> element.isLocked())) {
+            if (slideMaster != null && slide.getElementView().stream().noneMatch(element -> element.isLocked())) {
                 slideMaster.applyToSlide(slide);
             }
             slides.add(index, slide);
+            idIndex.attachSlide(slide);
             markAsModified();
         }
     }
@@ -105,7 +120,7 @@ public class Presentation implements Cloneable {
     
     public void removeSlide(int index) {
         if (index >= 0 && index < slides.size()) {
-            slides.remove(index);
+            idIndex.detachSlide(slides.remove(index));
             // 调整当前幻灯片索引
             if (currentSlideIndex >= slides.size()) {
                 currentSlideIndex = Math.max(0, slides.size() - 1);
@@ -115,7 +130,7 @@ public class Presentation implements Cloneable {
     }
     
     public void removeSlide(Slide slide) {
-        int index = slides.indexOf(slide);
+        int index = indexOfSlide(slide);
         if (index >= 0) {
             removeSlide(index);
         }
@@ -128,6 +143,7 @@ public class Presentation implements Cloneable {
             
             Slide slide = slides.remove(fromIndex);
             slides.add(toIndex, slide);
+            idIndex.invalidateSlidePositions();
             
             // 更新当前索引
             if (currentSlideIndex == fromIndex) {
@@ -147,6 +163,7 @@ public class Presentation implements Cloneable {
             Slide original = slides.get(index);
             Slide cloned = original.clone();
             slides.add(index + 1, cloned);
+            idIndex.attachSlide(cloned);
             markAsModified();
         }
     }
@@ -185,6 +202,60 @@ public class Presentation implements Cloneable {
         return slides.get(currentSlideIndex);
     }
     
+    /**
+     * 幻灯片在演示文稿中的位置，借助id索引定位，不存在时返回-1
+     */
+    public int indexOfSlide(Slide slide) {
+        if (slide == null) return -1;
+        int index = idIndex.indexOfSlide(slide.getIdValue(), slides);
+        if (index >= 0 && slides.get(index) == slide) {
+            return index;
+        }
+        return slides.indexOf(slide);
+    }
+    
+    public int indexOfSlide(String slideId) {
+        return slideId != null ? idIndex.indexOfSlide(CompactId.parse(slideId), slides) : -1;
+    }
+    
+    public Slide findSlideById(String slideId) {
+        int index = indexOfSlide(slideId);
+        return index >= 0 ? slides.get(index) : null;
+    }
+    
+    /**
+     * 在所有幻灯片中按id查找元素及其所在幻灯片
+     */
+    public PresentationIndex.ElementLocation locateElement(String elementId) {
+        return idIndex.findElement(elementId);
+    }
+    
+    public SlideElement<?> findElementById(String elementId) {
+        PresentationIndex.ElementLocation location = idIndex.findElement(elementId);
+        return location != null ? location.getElement() : null;
+    }
+    
+    /**
+     * 解析"slide:"超链接的目标：first、last、页码（从1开始）、幻灯片id或元素id（跳转到元素所在幻灯片）
+     * @return 幻灯片位置，无法解析时返回-1
+     */
+    public int resolveSlideLink(String target) {
+        if (target == null || slides.isEmpty()) return -1;
+        target = target.trim();
+        if (target.equals("first")) return 0;
+        if (target.equals("last")) return slides.size() - 1;
+        try {
+            int number = Integer.parseInt(target);
+            return number >= 1 && number <= slides.size() ? number - 1 : -1;
+        } catch (NumberFormatException e) {
+            // 不是页码，按id查找
+        }
+        int index = indexOfSlide(target);
+        if (index >= 0) return index;
+        PresentationIndex.ElementLocation location = idIndex.findElement(target);
+        return location != null ? indexOfSlide(location.getSlide()) : -1;
+    }
+    
     public Slide getSlide(int index) {
         if (index >= 0 && index < slides.size()) {
             return slides.get(index);
@@ -202,7 +273,7 @@ public class Presentation implements Cloneable {
     
     public List<Slide> findSlidesWithText(String text) {
         return slides.stream()
-                .filter(slide -> slide.getElements().stream()
+                .filter(slide -> slide.getElementView().stream()
                     .filter(element -> element instanceof TextElement)
                     .map(element -> (TextElement) element)
                     .anyMatch(textElement -> textElement.getText()
@@ -211,10 +282,16 @@ public class Presentation implements Cloneable {
     }
     
     public long countElementsByType(Class<?> elementType) {
-        return slides.stream()
-                .flatMap(slide -> slide.getElements().stream())
-                .filter(elementType::isInstance)
-                .count();
+        long count = 0;
+        for (int i = 0; i < slides.size(); i++) {
+            Slide slide = slides.get(i);
+            for (int j = 0; j < slide.getElementCount(); j++) {
+                if (elementType.isInstance(slide.getElement(j))) {
+                    count++;
+                }
+            }
+        }
+        return count;
     }
     
     // 主题应用方法
@@ -226,9 +303,10 @@ public class Presentation implements Cloneable {
             slide.setBackgroundColor(theme.getBackgroundColor());
             
             // 应用到所有元素
-            slide.getElements().forEach(element -> {
+            slide.forEachElement(element -> {
                 if (element.getStyle() != null) {
                     element.getStyle().applyColorTheme(theme);
+                    element.markContentChanged();
                 }
             });
         });
@@ -244,15 +322,17 @@ public class Presentation implements Cloneable {
     
     @com.fasterxml.jackson.annotation.JsonIgnore
     public int getTotalElements() {
-        return slides.stream()
-                .mapToInt(Slide::getElementCount)
-                .sum();
+        int total = 0;
+        for (int i = 0; i < slides.size(); i++) {
+            total += slides.get(i).getElementCount();
+        }
+        return total;
     }
     
     @com.fasterxml.jackson.annotation.JsonIgnore
     public Map<Class<?>, Long> getElementStatistics() {
         return slides.stream()
-                .flatMap(slide -> slide.getElements().stream())
+                .flatMap(slide -> slide.getElementView().stream())
                 .collect(Collectors.groupingBy(
                     Object::getClass,
                     Collectors.counting()
@@ -263,28 +343,78 @@ public class Presentation implements Cloneable {
     private void markAsModified() {
         this.modified = true;
         this.modifiedTime = new Date();
+        this.version = ModelVersion.next();
     }
     
     public void markAsSaved() {
         this.modified = false;
+        this.savedVersion = ModelVersion.current();
+    }
+    
+    /**
+     * 文档的模型版本：自身属性、幻灯片结构以及所有幻灯片、元素和样式修改中最新的一次
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public long getVersion() {
+        long latest = version;
+        for (int i = 0; i < slides.size(); i++) {
+            latest = Math.max(latest, slides.get(i).getVersion());
+        }
+        return latest;
+    }
+    
+    public boolean isChangedSince(long since) {
+        if (version > since) return true;
+        for (int i = 0; i < slides.size(); i++) {
+            if (slides.get(i).isChangedSince(since)) return true;
+        }
+        return false;
+    }
+    
+    /**
+     * 指定版本之后被修改过的幻灯片，用于增量保存和缩略图刷新
+     */
+    public List<Slide> findSlidesChangedSince(long since) {
+        List<Slide> changed = new ArrayList<>();
+        for (int i = 0; i < slides.size(); i++) {
+            if (slides.get(i).isChangedSince(since)) {
+                changed.add(slides.get(i));
+            }
+        }
+        return changed;
     }
     
+    /**
+     * 上次保存的时钟值，未保存过时为0
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public long getSavedVersion() { return savedVersion; }
+    
     @Override
     public Presentation clone() {
         try {
             Presentation cloned = (Presentation) super.clone();
-            cloned.id = UUID.randomUUID().toString();
+            cloned.id = CompactId.next();
+            cloned.legacyId = null;
             cloned.title = this.title + " 副本";
             cloned.createdTime = new Date();
             cloned.modifiedTime = new Date();
             cloned.slides = new ArrayList<>();
             cloned.metadata = new HashMap<>(this.metadata);
+            cloned.slideView = Collections.unmodifiableList(cloned.slides);
+            cloned.metadataView = Collections.unmodifiableMap(cloned.metadata);
+            cloned.idIndex = new PresentationIndex();
+            cloned.version = ModelVersion.next();
+            cloned.savedVersion = 0;
             cloned.currentSlideIndex = 0;
             cloned.modified = true;
             
             // 克隆所有幻灯片
-            this.slides.forEach(slide -> 
-                cloned.slides.add(slide.clone()));
+            this.slides.forEach(slide -> {
+                Slide clonedSlide = slide.clone();
+                cloned.slides.add(clonedSlide);
+                cloned.idIndex.attachSlide(clonedSlide);
+            });
             
             // 克隆主题
             if (this.colorTheme != null) {
@@ -299,7 +429,20 @@ public class Presentation implements Cloneable {
     }
     
     // Getter和Setter方法
-    public String getId() { return id; }
+    public String getId() { return legacyId != null ? legacyId : CompactId.toString(id); }
+    
+    /**
+     * 64位id，索引和比较时使用，不分配字符串
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public long getIdValue() { return id; }
+    
+    @com.fasterxml.jackson.annotation.JsonProperty("id")
+    private void setId(String id) {
+        if (id == null) return;
+        this.id = CompactId.parse(id);
+        this.legacyId = CompactId.isCompact(id) ? null : id;
+    }
     
     public String getTitle() { return title; }
     public void setTitle(String title) { 
@@ -317,9 +460,16 @@ public class Presentation implements Cloneable {
     
     public Date getModifiedTime() { return modifiedTime; }
     
+    /**
+     * 幻灯片列表的副本，调用方需要修改或长期持有列表时使用；只读遍历请用getSlideView()或forEachSlide()
+     */
     public List<Slide> getSlides() { return new ArrayList<>(slides); }
     public void setSlides(List<Slide> slides) { 
+        this.slides.forEach(idIndex::detachSlide);
+        idIndex.clear();
         this.slides = new ArrayList<>(slides);
+        this.slideView = Collections.unmodifiableList(this.slides);
+        this.slides.forEach(idIndex::attachSlide);
         this.currentSlideIndex = 0;
         markAsModified();
     }
@@ -339,6 +489,7 @@ public class Presentation implements Cloneable {
     public Map<String, Object> getMetadata() { return new HashMap<>(metadata); }
     public void setMetadata(Map<String, Object> metadata) { 
         this.metadata = new HashMap<>(metadata); 
+        this.metadataView = Collections.unmodifiableMap(this.metadata);
         markAsModified();
     }
     
@@ -351,6 +502,36 @@ public class Presentation implements Cloneable {
         return metadata.get(key);
     }
     
+    /**
+     * 元数据的只读视图，不复制
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public Map<String, Object> getMetadataView() { return metadataView; }
+    
+    /**
+     * 幻灯片列表的只读视图，不复制，随文档变化而变化；遍历期间不要增删幻灯片
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public List<Slide> getSlideView() { return slideView; }
+    
+    /**
+     * 按顺序依次访问所有幻灯片，不分配迭代器
+     */
+    public void forEachSlide(java.util.function.Consumer<? super Slide> visitor) {
+        for (int i = 0; i < slides.size(); i++) {
+            visitor.accept(slides.get(i));
+        }
+    }
+    
+    /**
+     * 依次访问所有幻灯片中的所有元素，不分配迭代器
+     */
+    public void forEachElement(java.util.function.Consumer<? super SlideElement<?>> visitor) {
+        for (int i = 0; i < slides.size(); i++) {
+            slides.get(i).forEachElement(visitor);
+        }
+    }
+    
     public int getCurrentSlideIndex() {
         return currentSlideIndex;
     }
@@ -364,7 +545,10 @@ public class Presentation implements Cloneable {
     public String getFilePath() { return filePath; }
     public void setFilePath(String filePath) { this.filePath = filePath; }
     
-    public boolean isModified() { return modified; }
+    /**
+     * 文档是否有未保存的修改：结构变化，或任何幻灯片、元素、样式在上次保存后被修改
+     */
+    public boolean isModified() { return modified || isChangedSince(savedVersion); }
     
     public AnimationType getTransitionAnimation() {
         return transitionAnimation;
@@ -372,6 +556,7 @@ public class Presentation implements Cloneable {
     
     public void setTransitionAnimation(AnimationType transitionAnimation) {
         this.transitionAnimation = transitionAnimation;
+        markAsModified();
     }
     
     public int getTransitionDuration() {
@@ -380,5 +565,15 @@ public class Presentation implements Cloneable {
     
     public void setTransitionDuration(int transitionDuration) {
         this.transitionDuration = transitionDuration;
+        markAsModified();
+    }
+    
+    public int getUndoHistorySize() {
+        return undoHistorySize;
+    }
+    
+    public void setUndoHistorySize(int undoHistorySize) {
+        this.undoHistorySize = Math.max(0, undoHistorySize);
+        markAsModified();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.ppteditor.core.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 演示文稿的id索引
+ * 元素id -> (所在幻灯片, 元素)，幻灯片id -> 位置；Presentation和Slide在增删元素和幻灯片时维护，
+ * 按id查找元素或幻灯片（超链接跳转、命令）时无需遍历所有幻灯片
+ */
+public class PresentationIndex {
+
+    private final Map<Long, ElementLocation> elements;
+    private final Map<Long, Integer> slidePositions;
+    private boolean slidePositionsValid; // 幻灯片增删或移动后位置失效，下次查询时重建
+
+    PresentationIndex() {
+        this.elements = new HashMap<>();
+        this.slidePositions = new HashMap<>();
+    }
+
+    /**
+     * 幻灯片加入演示文稿，登记其所有元素
+     */
+    void attachSlide(Slide slide) {
+        slide.idIndex = this;
+        for (int i = 0; i < slide.getElementCount(); i++) {
+            elementAdded(slide, slide.getElement(i));
+        }
+        slidePositionsValid = false;
+    }
+
+    /**
+     * 幻灯片离开演示文稿，移除其所有元素
+     */
+    void detachSlide(Slide slide) {
+        if (slide.idIndex == this) {
+            slide.idIndex = null;
+        }
+        for (int i = 0; i < slide.getElementCount(); i++) {
+            elementRemoved(slide, slide.getElement(i));
+        }
+        slidePositionsValid = false;
+    }
+
+    void elementAdded(Slide slide, SlideElement<?> element) {
+        elements.put(element.getIdValue(), new ElementLocation(slide, element));
+    }
+
+    void elementRemoved(Slide slide, SlideElement<?> element) {
+        ElementLocation location = elements.get(element.getIdValue());
+        // 同一id已登记为其他元素时不移除
+        if (location != null && location.element == element) {
+            elements.remove(element.getIdValue());
+        }
+    }
+
+    /**
+     * 幻灯片顺序变化（插入、删除、移动）
+     */
+    void invalidateSlidePositions() {
+        slidePositionsValid = false;
+    }
+
+    void clear() {
+        elements.clear();
+        slidePositions.clear();
+        slidePositionsValid = false;
+    }
+
+    public ElementLocation findElement(String elementId) {
+        return elementId != null ? elements.get(CompactId.parse(elementId)) : null;
+    }
+
+    public ElementLocation findElement(long elementId) {
+        return elements.get(elementId);
+    }
+
+    /**
+     * 幻灯片在演示文稿中的位置，不存在时返回-1
+     */
+    int indexOfSlide(long slideId, List<Slide> slides) {
+        if (!slidePositionsValid) {
+            slidePositions.clear();
+            for (int i = 0; i < slides.size(); i++) {
+                slidePositions.put(slides.get(i).getIdValue(), i);
+            }
+            slidePositionsValid = true;
+        }
+        Integer position = slidePositions.get(slideId);
+        return position != null ? position : -1;
+    }
+
+    public int getElementCount() {
+        return elements.size();
+    }
+
+    /**
+     * 元素在演示文稿中的位置
+     */
+    public static final class ElementLocation {
+        private final Slide slide;
+        private final SlideElement<?> element;
+
+        ElementLocation(Slide slide, SlideElement<?> element) {
+            this.slide = slide;
+            this.element = element;
+        }
+
+        public Slide getSlide() { return slide; }
+
+        public SlideElement<?> getElement() { return element; }
+    }
+}
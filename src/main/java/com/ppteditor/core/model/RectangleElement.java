@@ -67,12 +67,6 @@ public class RectangleElement extends SlideElement<ShapeStyle> implements java.i
         return new Rectangle((int)x, (int)y, (int)width, (int)height);
     }
     
-    @Override
-    public boolean contains(Point point) {
-        return point.x >= x && point.x <= x + width && 
-               point.y >= y && point.y <= y + height;
-    }
-    
     // 静态工厂方法 - 创建特定样式的矩形
     public static RectangleElement createCard(double x, double y, double width, double height) {
         RectangleElement element = new RectangleElement(x, y, width, height);
@@ -98,7 +92,7 @@ public class RectangleElement extends SlideElement<ShapeStyle> implements java.i
         g2d.setFont(textStyle.getFont());
         g2d.setColor(textStyle.getTextColor());
         
-        FontMetrics fm = g2d.getFontMetrics();
+        FontMetrics fm = TextMeasurer.getInstance().getFontMetrics(textStyle.getFont());
         String[] lines = text.split("\n");
         
         // 计算文本位置（居中）
@@ -141,10 +135,16 @@ public class RectangleElement extends SlideElement<ShapeStyle> implements java.i
     
     // Getter和Setter方法
     public String getText() { return text; }
-    public void setText(String text) { this.text = text; }
+    public void setText(String text) { 
+        this.text = text; 
+        markContentChanged();
+    }
     
     public TextStyle getTextStyle() { return textStyle; }
-    public void setTextStyle(TextStyle textStyle) { this.textStyle = textStyle; }
+    public void setTextStyle(TextStyle textStyle) { 
+        this.textStyle = textStyle; 
+        markContentChanged();
+    }
     
     @Override
     public RectangleElement clone() {
@@ -0,0 +1,209 @@
+package com.ppteditor.core.model;
+
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 幻灯片的选择模型
+ * 对外只提供只读视图，不再每次复制集合；缓存选中元素的包围框，元素几何变化时才重新计算；
+ * 选择实际发生变化时通知监听器新增和移除的元素
+ */
+public class SelectionModel {
+
+    private final Set<SlideElement<?>> selected;
+    private final Set<SlideElement<?>> readOnlyView;
+    private final List<SelectionListener> listeners;
+
+    // 包围框缓存，选择或选中元素几何变化时失效
+    private Rectangle boundingBox;
+
+    public SelectionModel() {
+        this.selected = new LinkedHashSet<>();
+        this.readOnlyView = Collections.unmodifiableSet(selected);
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * 只选中该元素
+     */
+    public void select(SlideElement<?> element) {
+        setSelection(element != null ? Collections.singletonList(element) : Collections.emptyList());
+    }
+
+    public void add(SlideElement<?> element) {
+        if (element == null || !selected.add(element)) return;
+        attach(element);
+        fireSelectionChanged(Collections.singletonList(element), Collections.emptyList());
+    }
+
+    public void addAll(Collection<? extends SlideElement<?>> elements) {
+        List<SlideElement<?>> added = new ArrayList<>();
+        for (SlideElement<?> element : elements) {
+            if (element != null && selected.add(element)) {
+                attach(element);
+                added.add(element);
+            }
+        }
+        fireSelectionChanged(added, Collections.emptyList());
+    }
+
+    public void remove(SlideElement<?> element) {
+        if (element == null || !selected.remove(element)) return;
+        detach(element);
+        fireSelectionChanged(Collections.emptyList(), Collections.singletonList(element));
+    }
+
+    /**
+     * 移除满足条件的元素（如被删除的元素）
+     */
+    public void removeIf(java.util.function.Predicate<SlideElement<?>> filter) {
+        List<SlideElement<?>> removed = new ArrayList<>();
+        for (Iterator<SlideElement<?>> iterator = selected.iterator(); iterator.hasNext(); ) {
+            SlideElement<?> element = iterator.next();
+            if (filter.test(element)) {
+                iterator.remove();
+                detach(element);
+                removed.add(element);
+            }
+        }
+        fireSelectionChanged(Collections.emptyList(), removed);
+    }
+
+    public void clear() {
+        if (selected.isEmpty()) return;
+        List<SlideElement<?>> removed = new ArrayList<>(selected);
+        selected.clear();
+        removed.forEach(this::detach);
+        fireSelectionChanged(Collections.emptyList(), removed);
+    }
+
+    /**
+     * 替换整个选择，只通知实际变化的部分
+     */
+    public void setSelection(Collection<? extends SlideElement<?>> elements) {
+        Set<SlideElement<?>> target = new LinkedHashSet<>(elements);
+        target.remove(null);
+        List<SlideElement<?>> removed = new ArrayList<>();
+        for (Iterator<SlideElement<?>> iterator = selected.iterator(); iterator.hasNext(); ) {
+            SlideElement<?> element = iterator.next();
+            if (!target.contains(element)) {
+                iterator.remove();
+                detach(element);
+                removed.add(element);
+            }
+        }
+        List<SlideElement<?>> added = new ArrayList<>();
+        for (SlideElement<?> element : target) {
+            if (selected.add(element)) {
+                attach(element);
+                added.add(element);
+            }
+        }
+        fireSelectionChanged(added, removed);
+    }
+
+    private void attach(SlideElement<?> element) {
+        element.setSelected(true);
+        element.selectionModel = this;
+        boundingBox = null;
+    }
+
+    private void detach(SlideElement<?> element) {
+        element.setSelected(false);
+        if (element.selectionModel == this) {
+            element.selectionModel = null;
+        }
+        boundingBox = null;
+    }
+
+    /**
+     * 选中元素的几何属性变化，包围框需要重新计算
+     */
+    void invalidateBounds() {
+        boundingBox = null;
+    }
+
+    private void fireSelectionChanged(List<SlideElement<?>> added, List<SlideElement<?>> removed) {
+        if (added.isEmpty() && removed.isEmpty()) return;
+        for (SelectionListener listener : listeners) {
+            listener.selectionChanged(this, added, removed);
+        }
+    }
+
+    // 查询方法
+    /**
+     * 选中元素的只读视图，随选择变化而变化
+     */
+    public Set<SlideElement<?>> getSelectedElements() {
+        return readOnlyView;
+    }
+
+    public boolean contains(SlideElement<?> element) {
+        return selected.contains(element);
+    }
+
+    public boolean isEmpty() {
+        return selected.isEmpty();
+    }
+
+    public int size() {
+        return selected.size();
+    }
+
+    /**
+     * 第一个被选中的元素，没有选择时返回null
+     */
+    public SlideElement<?> getFirst() {
+        return selected.isEmpty() ? null : selected.iterator().next();
+    }
+
+    /**
+     * 选中元素的包围框（未旋转的边界），没有选择时返回空矩形
+     */
+    public Rectangle getBoundingBox() {
+        if (boundingBox == null) {
+            boundingBox = calculateBoundingBox();
+        }
+        return new Rectangle(boundingBox);
+    }
+
+    private Rectangle calculateBoundingBox() {
+        if (selected.isEmpty()) return new Rectangle();
+
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+
+        for (SlideElement<?> element : selected) {
+            Rectangle bounds = element.getBounds();
+            minX = Math.min(minX, bounds.x);
+            minY = Math.min(minY, bounds.y);
+            maxX = Math.max(maxX, bounds.x + bounds.width);
+            maxY = Math.max(maxY, bounds.y + bounds.height);
+        }
+
+        return new Rectangle(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    public void addSelectionListener(SelectionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeSelectionListener(SelectionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 选择变化监听器
+     */
+    public interface SelectionListener {
+        /**
+         * @param added 新选中的元素
+         * @param removed 取消选中的元素
+         */
+        void selectionChanged(SelectionModel source, List<SlideElement<?>> added, List<SlideElement<?>> removed);
+    }
+}
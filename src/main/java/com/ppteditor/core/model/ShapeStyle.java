@@ -1,8 +1,8 @@
 package com.ppteditor.core.model;
 
 import com.ppteditor.core.annotations.Serializable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.awt.Color;
-import java.awt.BasicStroke;
 import java.awt.Stroke;
 
 /**
@@ -32,6 +32,13 @@ public class ShapeStyle implements ElementStyle, java.io.Serializable {
     @Serializable
     private double opacity; // 透明度 0-1
     
+    // 最近一次使用的描边，线宽或线型变化时从StrokeCache重新取得
+    private transient Stroke cachedBorderStroke;
+    private transient float cachedStrokeWidth;
+    private transient int cachedStrokeStyle;
+    
+    private transient long version; // 模型版本，属性修改时更新
+    
     public ShapeStyle() {
         this.fillColor = Color.LIGHT_GRAY;
         this.borderColor = Color.BLACK;
@@ -40,6 +47,7 @@ public class ShapeStyle implements ElementStyle, java.io.Serializable {
         this.hasBorder = true;
         this.borderStyle = 0;
         this.opacity = 1.0;
+        this.version = ModelVersion.next();
     }
     
     @Override
@@ -59,17 +67,27 @@ public class ShapeStyle implements ElementStyle, java.io.Serializable {
     public void applyColorTheme(ColorTheme colorTheme) {
         this.fillColor = colorTheme.getPrimaryColor();
         this.borderColor = colorTheme.getSecondaryColor();
+        touch();
+    }
+    
+    private void touch() {
+        version = ModelVersion.next();
     }
     
+    @Override
+    @JsonIgnore
+    public long getVersion() { return version; }
+    
     public Stroke getBorderStroke() {
-        switch (borderStyle) {
-            case 1: // 虚线
-                return new BasicStroke(borderWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, new float[]{10}, 0);
-            case 2: // 点线
-                return new BasicStroke(borderWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, new float[]{2}, 0);
-            default: // 实线
-                return new BasicStroke(borderWidth);
+        Stroke stroke = cachedBorderStroke;
+        if (stroke == null || cachedStrokeWidth != borderWidth || cachedStrokeStyle != borderStyle) {
+            // 0=实线, 1=虚线, 2=点线，相同参数的描边在所有样式间共享
+            stroke = StrokeCache.getInstance().getStroke(borderWidth, borderStyle);
+            cachedStrokeWidth = borderWidth;
+            cachedStrokeStyle = borderStyle;
+            cachedBorderStroke = stroke;
         }
+        return stroke;
     }
     
     public Color getEffectiveFillColor() {
@@ -92,23 +110,23 @@ public class ShapeStyle implements ElementStyle, java.io.Serializable {
     
     // Getter和Setter方法
     public Color getFillColor() { return fillColor; }
-    public void setFillColor(Color fillColor) { this.fillColor = fillColor; }
+    public void setFillColor(Color fillColor) { this.fillColor = fillColor; touch(); }
     
     public Color getBorderColor() { return borderColor; }
-    public void setBorderColor(Color borderColor) { this.borderColor = borderColor; }
+    public void setBorderColor(Color borderColor) { this.borderColor = borderColor; touch(); }
     
     public float getBorderWidth() { return borderWidth; }
-    public void setBorderWidth(float borderWidth) { this.borderWidth = borderWidth; }
+    public void setBorderWidth(float borderWidth) { this.borderWidth = borderWidth; touch(); }
     
     public boolean isHasFill() { return hasFill; }
-    public void setHasFill(boolean hasFill) { this.hasFill = hasFill; }
+    public void setHasFill(boolean hasFill) { this.hasFill = hasFill; touch(); }
     
     public boolean isHasBorder() { return hasBorder; }
-    public void setHasBorder(boolean hasBorder) { this.hasBorder = hasBorder; }
+    public void setHasBorder(boolean hasBorder) { this.hasBorder = hasBorder; touch(); }
     
     public int getBorderStyle() { return borderStyle; }
-    public void setBorderStyle(int borderStyle) { this.borderStyle = borderStyle; }
+    public void setBorderStyle(int borderStyle) { this.borderStyle = borderStyle; touch(); }
     
     public double getOpacity() { return opacity; }
-    public void setOpacity(double opacity) { this.opacity = opacity; }
+    public void setOpacity(double opacity) { this.opacity = opacity; touch(); }
 } 
\ No newline at end of file
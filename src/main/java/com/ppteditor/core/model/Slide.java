@@ -15,7 +15,9 @@ import java.util.stream.Collectors;
 public class Slide implements Cloneable {
     
     @Serializable(required = true)
-    private String id;
+    private long id;
+    
+    private String legacyId; // 加载旧文件时保留的UUID形式id，否则为null
     
     @Serializable
     private String name;
@@ -37,16 +39,24 @@ public class Slide implements Cloneable {
     
     // 非序列化字段
     private transient BufferedImage backgroundImage;
-    private transient Set<SlideElement<?>> selectedElements;
+    private transient SelectionModel selection;
+    private transient long backgroundVersion; // 背景版本号，背景变化时递增
+    private transient SpatialIndex spatialIndex; // 元素空间索引，用于命中测试和框选
+    private transient List<SlideElement<?>> elementView; // elements的只读视图，随elements替换
+    transient PresentationIndex idIndex; // 所属演示文稿的id索引，不在演示文稿中时为null
+    private transient long version; // 幻灯片自身的模型版本：属性、元素增删和层级变化时更新
     
     public Slide() {
-        this.id = UUID.randomUUID().toString();
+        this.id = CompactId.next();
         this.name = "幻灯片";
         this.elements = new ArrayList<>();
+        this.elementView = Collections.unmodifiableList(elements);
         this.backgroundColor = Color.WHITE;
         this.notes = "";
         this.size = new Dimension(SlideMaster.STANDARD_WIDTH, SlideMaster.STANDARD_HEIGHT);
-        this.selectedElements = new HashSet<>();
+        this.selection = new SelectionModel();
+        this.spatialIndex = new SpatialIndex();
+        this.version = ModelVersion.next();
     }
     
     public Slide(String name) {
@@ -60,60 +70,132 @@ public class Slide implements Cloneable {
             elements.add(element);
             // 自动设置z-index
             element.setZIndex(elements.size());
+            spatialIndex.add(element);
+            touch();
+            if (idIndex != null) {
+                idIndex.elementAdded(this, element);
+            }
         }
     }
     
     public void removeElement(SlideElement<?> element) {
-        elements.remove(element);
-        selectedElements.remove(element);
-        // 重新排序z-index
-        reorderZIndex();
+        int index = indexOfElement(element);
+        if (index < 0) return;
+        elements.remove(index);
+        selection.remove(element);
+        spatialIndex.remove(element);
+        if (idIndex != null) {
+            idIndex.elementRemoved(this, element);
+        }
+        // 只需重新编号被移除位置之后的元素
+        reorderZIndex(index);
     }
     
     public void removeElement(String elementId) {
-        elements.removeIf(element -> element.getId().equals(elementId));
-        selectedElements.removeIf(element -> element.getId().equals(elementId));
-        reorderZIndex();
+        SlideElement<?> element = findElementById(elementId);
+        if (element != null) {
+            removeElement(element);
+        }
     }
     
     public void removeSelectedElements() {
-        elements.removeAll(selectedElements);
-        selectedElements.clear();
+        Set<SlideElement<?>> selected = selection.getSelectedElements();
+        elements.removeAll(selected);
+        for (SlideElement<?> element : selected) {
+            spatialIndex.remove(element);
+            if (idIndex != null) {
+                idIndex.elementRemoved(this, element);
+            }
+        }
+        selection.clear();
         reorderZIndex();
     }
     
     public void removeMasterElements() {
         // 移除所有锁定的元素（母版元素）
-        elements.removeIf(element -> element.isLocked());
-        selectedElements.removeIf(element -> element.isLocked());
+        elements.removeIf(element -> {
+            if (!element.isLocked()) return false;
+            if (idIndex != null) {
+                idIndex.elementRemoved(this, element);
+            }
+            return true;
+        });
+        selection.removeIf(element -> element.isLocked());
+        rebuildSpatialIndex();
         reorderZIndex();
     }
     
+    private void rebuildSpatialIndex() {
+        spatialIndex.clear();
+        elements.forEach(spatialIndex::add);
+    }
+    
     private void reorderZIndex() {
-        for (int i = 0; i < elements.size(); i++) {
+        reorderZIndex(0);
+    }
+    
+    // elements列表即z-order，z-index始终等于列表位置+1
+    private void reorderZIndex(int fromIndex) {
+        for (int i = fromIndex; i < elements.size(); i++) {
             elements.get(i).setZIndex(i + 1);
         }
+        touch();
+    }
+    
+    /**
+     * 查找元素在z-order中的位置，借助z-index实现O(1)定位
+     */
+    private int indexOfElement(SlideElement<?> element) {
+        if (element == null) return -1;
+        int index = element.getZIndex() - 1;
+        if (index >= 0 && index < elements.size() && elements.get(index) == element) {
+            return index;
+        }
+        return elements.indexOf(element);
+    }
+    
+    public boolean containsElement(SlideElement<?> element) {
+        return indexOfElement(element) >= 0;
     }
     
     // 元素查找方法 - 使用Stream API
+    /**
+     * 按id查找元素；幻灯片在演示文稿中时使用演示文稿的id索引
+     */
     public SlideElement<?> findElementById(String id) {
+        if (idIndex != null) {
+            PresentationIndex.ElementLocation location = idIndex.findElement(id);
+            return location != null && location.getSlide() == this ? location.getElement() : null;
+        }
+        if (id == null) return null;
+        long value = CompactId.parse(id);
         return elements.stream()
-                .filter(element -> element.getId().equals(id))
+                .filter(element -> element.getIdValue() == value)
                 .findFirst()
                 .orElse(null);
     }
     
     public List<SlideElement<?>> findElementsAt(Point point) {
-        return elements.stream()
-                .filter(element -> element.contains(point))
-                .sorted((e1, e2) -> Integer.compare(e2.getZIndex(), e1.getZIndex())) // 按z-index降序
-                .collect(Collectors.toList());
+        // 通过空间索引取得候选元素，结果按z-index降序
+        List<SlideElement<?>> result = spatialIndex.query(point);
+        result.removeIf(element -> !element.contains(point.x, point.y));
+        result.sort((e1, e2) -> Integer.compare(e2.getZIndex(), e1.getZIndex()));
+        return result;
+    }
+    
+    /**
+     * 查找指定位置最上层的元素
+     */
+    public SlideElement<?> findTopElementAt(Point point) {
+        return spatialIndex.findTopAt(point);
     }
     
     public List<SlideElement<?>> findElementsInArea(Rectangle area) {
-        return elements.stream()
-                .filter(element -> area.intersects(element.getBounds()))
-                .collect(Collectors.toList());
+        // 通过空间索引取得候选元素，结果按z-index升序
+        List<SlideElement<?>> result = spatialIndex.query(area);
+        result.removeIf(element -> !area.intersects(element.getBounds()));
+        result.sort(Comparator.comparingInt(SlideElement::getZIndex));
+        return result;
     }
     
     public List<SlideElement<?>> findElementsByType(Class<?> elementType) {
@@ -124,68 +206,109 @@ public class Slide implements Cloneable {
     
     // 选择管理方法
     public void selectElement(SlideElement<?> element) {
-        clearSelection();
-        if (element != null) {
-            element.setSelected(true);
-            selectedElements.add(element);
-        }
+        selection.select(element);
     }
     
     public void addToSelection(SlideElement<?> element) {
-        if (element != null) {
-            element.setSelected(true);
-            selectedElements.add(element);
-        }
+        selection.add(element);
     }
     
     public void removeFromSelection(SlideElement<?> element) {
-        if (element != null) {
-            element.setSelected(false);
-            selectedElements.remove(element);
-        }
+        selection.remove(element);
+    }
+    
+    /**
+     * 替换当前选择（如框选），只通知实际变化的元素
+     */
+    public void setSelection(Collection<? extends SlideElement<?>> elements) {
+        selection.setSelection(elements);
     }
     
     public void clearSelection() {
-        selectedElements.forEach(element -> element.setSelected(false));
-        selectedElements.clear();
+        selection.clear();
     }
     
     public void selectAll() {
-        clearSelection();
-        elements.forEach(this::addToSelection);
+        selection.setSelection(elements);
     }
     
     // 层级操作方法
     public void bringToFront(SlideElement<?> element) {
-        if (elements.contains(element)) {
-            elements.remove(element);
+        int index = indexOfElement(element);
+        if (index >= 0 && index < elements.size() - 1) {
+            elements.remove(index);
             elements.add(element);
-            reorderZIndex();
+            reorderZIndex(index);
         }
     }
     
     public void sendToBack(SlideElement<?> element) {
-        if (elements.contains(element)) {
-            elements.remove(element);
+        int index = indexOfElement(element);
+        if (index > 0) {
+            elements.remove(index);
             elements.add(0, element);
-            reorderZIndex();
+            reorderZIndex(0);
         }
     }
     
+    // 上移/下移一层只交换相邻两个元素，O(1)
     public void bringForward(SlideElement<?> element) {
-        int index = elements.indexOf(element);
+        int index = indexOfElement(element);
         if (index >= 0 && index < elements.size() - 1) {
-            Collections.swap(elements, index, index + 1);
-            reorderZIndex();
+            swapElements(index, index + 1);
         }
     }
     
     public void sendBackward(SlideElement<?> element) {
-        int index = elements.indexOf(element);
+        int index = indexOfElement(element);
         if (index > 0) {
-            Collections.swap(elements, index, index - 1);
-            reorderZIndex();
+            swapElements(index, index - 1);
+        }
+    }
+    
+    private void swapElements(int i, int j) {
+        Collections.swap(elements, i, j);
+        elements.get(i).setZIndex(i + 1);
+        elements.get(j).setZIndex(j + 1);
+        touch();
+    }
+    
+    private void touch() {
+        version = ModelVersion.next();
+    }
+    
+    /**
+     * 幻灯片的模型版本：自身属性、元素增删、层级以及所有元素和样式修改中最新的一次
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public long getVersion() {
+        long latest = version;
+        for (int i = 0; i < elements.size(); i++) {
+            latest = Math.max(latest, elements.get(i).getVersion());
+        }
+        return latest;
+    }
+    
+    /**
+     * 幻灯片在指定版本之后是否被修改过，遇到第一个较新的元素即返回
+     */
+    public boolean isChangedSince(long since) {
+        if (version > since) return true;
+        for (int i = 0; i < elements.size(); i++) {
+            if (elements.get(i).getVersion() > since) return true;
         }
+        return false;
+    }
+    
+    /**
+     * 估算幻灯片及其所有元素占用的堆内存（字节）
+     */
+    public long estimateMemoryBytes() {
+        long bytes = 256 + SlideElement.estimateStringBytes(name) + SlideElement.estimateStringBytes(notes);
+        for (int i = 0; i < elements.size(); i++) {
+            bytes += elements.get(i).estimateMemoryBytes();
+        }
+        return bytes;
     }
     
     // 元素复制方法
@@ -196,7 +319,7 @@ public class Slide implements Cloneable {
     }
     
     public void duplicateSelectedElements() {
-        List<SlideElement<?>> toClone = new ArrayList<>(selectedElements);
+        List<SlideElement<?>> toClone = new ArrayList<>(selection.getSelectedElements());
         clearSelection();
         toClone.forEach(this::duplicateElement);
     }
@@ -206,13 +329,76 @@ public class Slide implements Cloneable {
         // 绘制背景
         renderBackground(g2d, slideSize);
         
-        // 按z-index排序后绘制元素
-        elements.stream()
-                .sorted(Comparator.comparingInt(SlideElement::getZIndex))
-                .forEach(element -> element.draw(g2d));
+        // elements已按z-order排列，直接顺序绘制
+        renderElements(g2d, 0, elements.size(), true);
+    }
+    
+    /**
+     * 只渲染内容，不绘制选中框；结果只取决于模型，可按getVersion()缓存
+     */
+    public void renderContent(Graphics2D g2d, Dimension slideSize) {
+        renderBackground(g2d, slideSize);
+        renderElements(g2d, 0, elements.size(), false);
+    }
+    
+    /**
+     * 渲染静态层元素：位于最底层、未选中的锁定元素（母版元素）
+     * 背景需要先通过renderBackground单独绘制
+     */
+    public void renderStaticElements(Graphics2D g2d) {
+        renderElements(g2d, 0, countStaticElements(), true);
+    }
+    
+    /**
+     * 渲染交互层元素：静态层之上的所有元素
+     */
+    public void renderInteractiveElements(Graphics2D g2d) {
+        renderElements(g2d, countStaticElements(), elements.size(), true);
+    }
+    
+    /**
+     * 静态层的版本戳，背景或静态层元素变化时改变
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public long getStaticLayerStamp() {
+        int count = countStaticElements();
+        long stamp = backgroundVersion * 31 + count;
+        for (int i = 0; i < count; i++) {
+            SlideElement<?> element = elements.get(i);
+            stamp = stamp * 31 + System.identityHashCode(element);
+            stamp = stamp * 31 + element.getContentVersion();
+            stamp = stamp * 31 + Double.hashCode(element.getX());
+            stamp = stamp * 31 + Double.hashCode(element.getY());
+            stamp = stamp * 31 + Double.hashCode(element.getRotation());
+        }
+        return stamp;
+    }
+    
+    // 最底层连续的、未选中且可见的锁定元素数量
+    private int countStaticElements() {
+        int count = 0;
+        while (count < elements.size()) {
+            SlideElement<?> element = elements.get(count);
+            if (!element.isLocked() || !element.isVisible() || selection.contains(element)) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+    
+    // 按z-order绘制[from, to)范围内的元素，跳过与裁剪区域不相交的元素
+    private void renderElements(Graphics2D g2d, int from, int to, boolean showSelection) {
+        Rectangle clip = g2d.getClipBounds();
+        for (int i = from; i < to; i++) {
+            SlideElement<?> element = elements.get(i);
+            if (clip == null || clip.intersects(element.getRenderBounds())) {
+                element.draw(g2d, showSelection);
+            }
+        }
     }
     
-    private void renderBackground(Graphics2D g2d, Dimension slideSize) {
+    public void renderBackground(Graphics2D g2d, Dimension slideSize) {
         // 绘制背景色
         g2d.setColor(backgroundColor);
         g2d.fillRect(0, 0, slideSize.width, slideSize.height);
@@ -225,105 +411,105 @@ public class Slide implements Cloneable {
     
     // 对齐功能
     public void alignLeft() {
-        if (selectedElements.isEmpty()) return;
+        if (selection.isEmpty()) return;
         
-        if (selectedElements.size() == 1) {
+        if (selection.size() == 1) {
             // 单个元素对齐到画布左边
-            selectedElements.forEach(element -> element.setX(0));
+            selection.getSelectedElements().forEach(element -> element.setX(0));
         } else {
             // 多个元素对齐到最左边的元素
-            double minX = selectedElements.stream()
+            double minX = selection.getSelectedElements().stream()
                     .mapToDouble(SlideElement::getX)
                     .min()
                     .orElse(0);
-            selectedElements.forEach(element -> element.setX(minX));
+            selection.getSelectedElements().forEach(element -> element.setX(minX));
         }
     }
     
     public void alignRight() {
-        if (selectedElements.isEmpty()) return;
+        if (selection.isEmpty()) return;
         
-        if (selectedElements.size() == 1) {
+        if (selection.size() == 1) {
             // 单个元素对齐到画布右边（假设画布宽度800）
-            selectedElements.forEach(element -> 
+            selection.getSelectedElements().forEach(element -> 
                 element.setX(800 - element.getWidth()));
         } else {
             // 多个元素对齐到最右边的元素
-            double maxX = selectedElements.stream()
+            double maxX = selection.getSelectedElements().stream()
                     .mapToDouble(element -> element.getX() + element.getWidth())
                     .max()
                     .orElse(0);
-            selectedElements.forEach(element -> 
+            selection.getSelectedElements().forEach(element -> 
                 element.setX(maxX - element.getWidth()));
         }
     }
     
     public void alignTop() {
-        if (selectedElements.isEmpty()) return;
+        if (selection.isEmpty()) return;
         
-        if (selectedElements.size() == 1) {
+        if (selection.size() == 1) {
             // 单个元素对齐到画布顶部
-            selectedElements.forEach(element -> element.setY(0));
+            selection.getSelectedElements().forEach(element -> element.setY(0));
         } else {
             // 多个元素对齐到最顶部的元素
-            double minY = selectedElements.stream()
+            double minY = selection.getSelectedElements().stream()
                     .mapToDouble(SlideElement::getY)
                     .min()
                     .orElse(0);
-            selectedElements.forEach(element -> element.setY(minY));
+            selection.getSelectedElements().forEach(element -> element.setY(minY));
         }
     }
     
     public void alignBottom() {
-        if (selectedElements.isEmpty()) return;
+        if (selection.isEmpty()) return;
         
-        if (selectedElements.size() == 1) {
+        if (selection.size() == 1) {
             // 单个元素对齐到画布底部（假设画布高度450）
-            selectedElements.forEach(element -> 
+            selection.getSelectedElements().forEach(element -> 
                 element.setY(450 - element.getHeight()));
         } else {
             // 多个元素对齐到最底部的元素
-            double maxY = selectedElements.stream()
+            double maxY = selection.getSelectedElements().stream()
                     .mapToDouble(element -> element.getY() + element.getHeight())
                     .max()
                     .orElse(0);
-            selectedElements.forEach(element -> 
+            selection.getSelectedElements().forEach(element -> 
                 element.setY(maxY - element.getHeight()));
         }
     }
     
     public void alignCenterHorizontal() {
-        if (selectedElements.isEmpty()) return;
+        if (selection.isEmpty()) return;
         
-        if (selectedElements.size() == 1) {
+        if (selection.size() == 1) {
             // 单个元素水平居中到画布
-            selectedElements.forEach(element -> 
+            selection.getSelectedElements().forEach(element -> 
                 element.setX((800 - element.getWidth()) / 2));
         } else {
             // 多个元素水平居中对齐
-            double avgX = selectedElements.stream()
+            double avgX = selection.getSelectedElements().stream()
                     .mapToDouble(element -> element.getX() + element.getWidth() / 2)
                     .average()
                     .orElse(0);
-            selectedElements.forEach(element -> 
+            selection.getSelectedElements().forEach(element -> 
                 element.setX(avgX - element.getWidth() / 2));
         }
     }
     
     public void alignCenterVertical() {
-        if (selectedElements.isEmpty()) return;
+        if (selection.isEmpty()) return;
         
-        if (selectedElements.size() == 1) {
+        if (selection.size() == 1) {
             // 单个元素垂直居中到画布
-            selectedElements.forEach(element -> 
+            selection.getSelectedElements().forEach(element -> 
                 element.setY((450 - element.getHeight()) / 2));
         } else {
             // 多个元素垂直居中对齐
-            double avgY = selectedElements.stream()
+            double avgY = selection.getSelectedElements().stream()
                     .mapToDouble(element -> element.getY() + element.getHeight() / 2)
                     .average()
                     .orElse(0);
-            selectedElements.forEach(element -> 
+            selection.getSelectedElements().forEach(element -> 
                 element.setY(avgY - element.getHeight() / 2));
         }
     }
@@ -332,14 +518,20 @@ public class Slide implements Cloneable {
     public Slide clone() {
         try {
             Slide cloned = (Slide) super.clone();
-            cloned.id = UUID.randomUUID().toString();
+            cloned.id = CompactId.next();
+            cloned.legacyId = null;
             cloned.name = this.name + " 副本";
             cloned.elements = new ArrayList<>();
-            cloned.selectedElements = new HashSet<>();
+            cloned.elementView = Collections.unmodifiableList(cloned.elements);
+            cloned.selection = new SelectionModel();
+            cloned.spatialIndex = new SpatialIndex();
+            cloned.idIndex = null;
+            cloned.version = ModelVersion.next();
             
             // 克隆所有元素
             this.elements.forEach(element -> 
                 cloned.elements.add(element.clone()));
+            cloned.rebuildSpatialIndex();
                 
             return cloned;
         } catch (CloneNotSupportedException e) {
@@ -348,44 +540,114 @@ public class Slide implements Cloneable {
     }
     
     // Getter和Setter方法
-    public String getId() { return id; }
+    public String getId() { return legacyId != null ? legacyId : CompactId.toString(id); }
+    
+    /**
+     * 64位id，索引和比较时使用，不分配字符串
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public long getIdValue() { return id; }
+    
+    // 反序列化：兼容旧文件的UUID字符串id
+    @com.fasterxml.jackson.annotation.JsonProperty("id")
+    private void setId(String id) {
+        if (id == null) return;
+        this.id = CompactId.parse(id);
+        this.legacyId = CompactId.isCompact(id) ? null : id;
+    }
     
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { 
+        this.name = name; 
+        touch();
+    }
     
+    /**
+     * 元素列表的副本，调用方需要修改或长期持有列表时使用；只读遍历请用getElementView()或forEachElement()
+     */
     public List<SlideElement<?>> getElements() { return new ArrayList<>(elements); }
     public void setElements(List<SlideElement<?>> elements) { 
+        if (idIndex != null) {
+            this.elements.forEach(element -> idIndex.elementRemoved(this, element));
+            elements.forEach(element -> idIndex.elementAdded(this, element));
+        }
         this.elements = new ArrayList<>(elements);
-        this.selectedElements = new HashSet<>();
+        this.elementView = Collections.unmodifiableList(this.elements);
+        if (selection == null) {
+            selection = new SelectionModel();
+        } else {
+            selection.clear();
+        }
+        // 按已保存的z-index排列一次，之后列表顺序即z-order
+        this.elements.sort(Comparator.comparingInt(SlideElement::getZIndex));
+        reorderZIndex();
+        rebuildSpatialIndex();
     }
     
     public Color getBackgroundColor() { return backgroundColor; }
-    public void setBackgroundColor(Color backgroundColor) { this.backgroundColor = backgroundColor; }
+    public void setBackgroundColor(Color backgroundColor) { 
+        this.backgroundColor = backgroundColor; 
+        backgroundVersion++;
+        touch();
+    }
     
     public String getBackgroundImagePath() { return backgroundImagePath; }
     public void setBackgroundImagePath(String backgroundImagePath) { 
         this.backgroundImagePath = backgroundImagePath;
+        backgroundVersion++;
+        touch();
         // TODO: 加载背景图片
     }
     
     public String getNotes() { return notes; }
-    public void setNotes(String notes) { this.notes = notes; }
+    public void setNotes(String notes) { 
+        this.notes = notes; 
+        touch();
+    }
     
+    /**
+     * 选中元素的只读视图，不再复制
+     */
     @com.fasterxml.jackson.annotation.JsonIgnore
     public Set<SlideElement<?>> getSelectedElements() { 
-        return new HashSet<>(selectedElements); 
+        return selection.getSelectedElements(); 
     }
     
     @com.fasterxml.jackson.annotation.JsonIgnore
-    public boolean hasSelection() { return !selectedElements.isEmpty(); }
+    public SelectionModel getSelectionModel() { return selection; }
+    
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public boolean hasSelection() { return !selection.isEmpty(); }
     
     @com.fasterxml.jackson.annotation.JsonIgnore
     public int getElementCount() { return elements.size(); }
     
+    /**
+     * 元素列表的只读视图（按z-order排列），不复制，随幻灯片变化而变化；遍历期间不要增删元素
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public List<SlideElement<?>> getElementView() { return elementView; }
+    
+    /**
+     * 按z-order取得第index个元素
+     */
+    public SlideElement<?> getElement(int index) { return elements.get(index); }
+    
+    /**
+     * 按z-order依次访问所有元素，不分配迭代器
+     */
+    public void forEachElement(java.util.function.Consumer<? super SlideElement<?>> visitor) {
+        for (int i = 0; i < elements.size(); i++) {
+            visitor.accept(elements.get(i));
+        }
+    }
+    
     public Dimension getSize() { return new Dimension(size); }
     
     public void setSize(Dimension size) { 
         this.size = new Dimension(size);
+        backgroundVersion++;
+        touch();
     }
     
     public int getWidth() { return size.width; }
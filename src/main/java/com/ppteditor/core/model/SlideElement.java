@@ -3,7 +3,9 @@ package com.ppteditor.core.model;
 import com.ppteditor.core.annotations.Serializable;
 import com.ppteditor.core.enums.ElementType;
 import java.awt.*;
-import java.util.UUID;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
 
 /**
  * 抽象幻灯片元素基类
@@ -13,8 +15,13 @@ import java.util.UUID;
  */
 public abstract class SlideElement<T extends ElementStyle> implements Cloneable, java.io.Serializable {
     
+    // 渲染外扩边距：覆盖边框线宽、选中虚线框和四角控制点
+    public static final int RENDER_MARGIN = 8;
+    
     @Serializable(required = true)
-    protected String id;
+    protected long id;
+    
+    protected String legacyId; // 旧文件中的非紧凑id（如UUID），保存时原样写回；新建对象为null
     
     @Serializable(required = true) 
     protected ElementType type;
@@ -40,14 +47,32 @@ public abstract class SlideElement<T extends ElementStyle> implements Cloneable,
     protected transient boolean selected;
     protected transient boolean locked;
     
+    // 内容版本号，影响外观的属性变化时递增，用于判断光栅缓存是否有效
+    protected transient long contentVersion;
+    
+    // 模型版本，任何属性（含位置）变化时取ModelVersion的新值
+    private transient long version;
+    
+    // 所属幻灯片的空间索引，几何属性变化时通知其更新
+    transient SpatialIndex spatialIndex;
+    
+    // 元素被选中时所属的选择模型，几何属性变化时使其包围框失效
+    transient SelectionModel selectionModel;
+    
+    // 旋转角度的正弦/余弦缓存，命中测试时避免重复计算三角函数
+    private transient double hitTestRotation;
+    private transient double hitTestCos = 1;
+    private transient double hitTestSin;
+    
     public SlideElement(ElementType type) {
-        this.id = UUID.randomUUID().toString();
+        this.id = CompactId.next();
         this.type = type;
         this.visible = true;
         this.selected = false;
         this.locked = false;
         this.rotation = 0;
         this.zIndex = 0;
+        this.version = ModelVersion.next();
     }
     
     // 抽象方法 - 子类必须实现
@@ -59,28 +84,198 @@ public abstract class SlideElement<T extends ElementStyle> implements Cloneable,
     public Rectangle getSimpleBounds() {
         return new Rectangle((int)x, (int)y, (int)width, (int)height);
     }
-    public abstract boolean contains(Point point);
+    
+    public boolean contains(Point point) {
+        return contains(point.x, point.y);
+    }
+    
+    /**
+     * 命中测试：把点逆旋转到元素未旋转时的坐标系，再由containsLocal按元素形状判断，不分配对象
+     */
+    public boolean contains(double px, double py) {
+        if (rotation == 0) {
+            return containsLocal(px, py);
+        }
+        if (rotation != hitTestRotation) {
+            double radians = Math.toRadians(rotation);
+            hitTestCos = Math.cos(radians);
+            hitTestSin = Math.sin(radians);
+            hitTestRotation = rotation;
+        }
+        double centerX = x + width / 2;
+        double centerY = y + height / 2;
+        double dx = px - centerX;
+        double dy = py - centerY;
+        return containsLocal(centerX + dx * hitTestCos + dy * hitTestSin,
+                             centerY - dx * hitTestSin + dy * hitTestCos);
+    }
+    
+    /**
+     * 在元素未旋转的坐标系中判断点是否在元素内，默认为矩形区域
+     */
+    protected boolean containsLocal(double px, double py) {
+        return px >= x && px <= x + width && py >= y && py <= y + height;
+    }
+    
+    /**
+     * 获取元素绘制时实际覆盖的区域（考虑旋转、边框和选中标记）
+     * 用于脏区域重绘和裁剪判断
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public Rectangle getRenderBounds() {
+        Rectangle bounds = getBounds();
+        if (rotation != 0) {
+            AffineTransform transform = AffineTransform.getRotateInstance(
+                Math.toRadians(rotation), x + width / 2, y + height / 2);
+            bounds = transform.createTransformedShape(bounds).getBounds();
+        }
+        bounds.grow(RENDER_MARGIN, RENDER_MARGIN);
+        return bounds;
+    }
     
     // 模板方法模式 - 渲染流程
     public final void draw(Graphics2D g2d) {
+        draw(g2d, true);
+    }
+    
+    /**
+     * @param showSelection 为false时不绘制选中框（缩略图等离屏渲染）
+     */
+    public final void draw(Graphics2D g2d, boolean showSelection) {
         if (!visible) return;
         
         Graphics2D g2dCopy = (Graphics2D) g2d.create();
         
-        // 应用变换
-        applyTransform(g2dCopy);
-        
-        // 渲染元素
-        render(g2dCopy);
+        // 优先使用光栅缓存，不满足条件时直接渲染
+        if (!drawCached(g2dCopy)) {
+            Graphics2D renderG2d = (Graphics2D) g2dCopy.create();
+            applyTransform(renderG2d);
+            render(renderG2d);
+            renderG2d.dispose();
+        }
         
-        // 绘制选中状态
-        if (selected) {
+        // 绘制选中状态（不进入缓存）
+        if (selected && showSelection) {
+            applyTransform(g2dCopy);
             drawSelectionIndicator(g2dCopy);
         }
         
         g2dCopy.dispose();
     }
     
+    /**
+     * 使用光栅缓存绘制元素
+     * @return true如果已通过缓存完成绘制
+     */
+    private boolean drawCached(Graphics2D g2d) {
+        ElementRasterCache cache = ElementRasterCache.getInstance();
+        if (!cache.isEnabled() || !isRasterCacheable()) return false;
+        
+        // 只在设备变换为平移+缩放时使用缓存
+        AffineTransform deviceTransform = g2d.getTransform();
+        int unsupported = AffineTransform.TYPE_GENERAL_ROTATION | AffineTransform.TYPE_QUADRANT_ROTATION |
+                          AffineTransform.TYPE_FLIP | AffineTransform.TYPE_GENERAL_TRANSFORM;
+        if ((deviceTransform.getType() & unsupported) != 0) return false;
+        
+        double scaleX = deviceTransform.getScaleX();
+        double scaleY = deviceTransform.getScaleY();
+        Rectangle area = getRenderBounds();
+        
+        BufferedImage image = cache.get(this, contentVersion, scaleX, scaleY, rotation);
+        if (image == null) {
+            int imageWidth = (int) Math.ceil(area.width * scaleX);
+            int imageHeight = (int) Math.ceil(area.height * scaleY);
+            if (imageWidth <= 0 || imageHeight <= 0) return false;
+            
+            image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D imageG2d = image.createGraphics();
+            imageG2d.setRenderingHints(g2d.getRenderingHints());
+            imageG2d.scale(scaleX, scaleY);
+            imageG2d.translate(-area.x, -area.y);
+            applyTransform(imageG2d);
+            render(imageG2d);
+            imageG2d.dispose();
+            // render可能修改尺寸（如自动调整大小的文本），此时不缓存
+            if (!area.equals(getRenderBounds())) return true;
+            cache.put(this, image, contentVersion, scaleX, scaleY, rotation);
+        }
+        
+        // 在设备坐标系中按像素对齐绘制缓存位图
+        Point2D origin = deviceTransform.transform(new Point2D.Double(area.x, area.y), null);
+        g2d.setTransform(new AffineTransform());
+        g2d.drawImage(image, (int) Math.round(origin.getX()), (int) Math.round(origin.getY()), null);
+        g2d.setTransform(deviceTransform);
+        return true;
+    }
+    
+    /**
+     * 元素是否允许使用光栅缓存，子类可根据自身特点覆盖
+     */
+    protected boolean isRasterCacheable() {
+        return true;
+    }
+    
+    /**
+     * 标记元素外观已变化，使光栅缓存失效
+     * 直接修改样式对象的属性后需要调用此方法
+     */
+    public void markContentChanged() {
+        contentVersion++;
+        touch();
+    }
+    
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public long getContentVersion() { return contentVersion; }
+    
+    /**
+     * 记录一次模型修改
+     */
+    protected void touch() {
+        version = ModelVersion.next();
+    }
+    
+    /**
+     * 元素的模型版本，包含样式对象的修改
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public long getVersion() {
+        return style != null ? Math.max(version, style.getVersion()) : version;
+    }
+    
+    /**
+     * 元素在指定版本之后是否被修改过
+     */
+    public boolean isChangedSince(long since) {
+        return getVersion() > since;
+    }
+    
+    /**
+     * 估算元素占用的堆内存（字节），用于撤销历史的内存预算；持有大对象的子类应覆盖
+     */
+    public long estimateMemoryBytes() {
+        long bytes = 160; // 对象本身、样式对象和坐标
+        if (legacyId != null) bytes += estimateStringBytes(legacyId);
+        if (hyperlink != null) bytes += estimateStringBytes(hyperlink);
+        return bytes;
+    }
+    
+    protected static long estimateStringBytes(String s) {
+        return s == null ? 0 : 40 + s.length() * 2L;
+    }
+    
+    /**
+     * 通知空间索引元素的位置、大小或旋转已变化
+     */
+    protected void notifyGeometryChanged() {
+        touch();
+        if (spatialIndex != null) {
+            spatialIndex.markDirty(this);
+        }
+        if (selectionModel != null) {
+            selectionModel.invalidateBounds();
+        }
+    }
+    
     protected void applyTransform(Graphics2D g2d) {
         if (rotation != 0) {
             double centerX = x + width / 2;
@@ -89,9 +284,13 @@ public abstract class SlideElement<T extends ElementStyle> implements Cloneable,
         }
     }
     
+    // 选中框虚线，所有元素共享
+    private static final Stroke SELECTION_STROKE =
+        new BasicStroke(2, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, new float[]{5}, 0);
+    
     protected void drawSelectionIndicator(Graphics2D g2d) {
         g2d.setColor(Color.BLUE);
-        g2d.setStroke(new BasicStroke(2, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, new float[]{5}, 0));
+        g2d.setStroke(SELECTION_STROKE);
         g2d.drawRect((int)x - 2, (int)y - 2, (int)width + 4, (int)height + 4);
         
         // 绘制控制点
@@ -112,8 +311,12 @@ public abstract class SlideElement<T extends ElementStyle> implements Cloneable,
         try {
             @SuppressWarnings("unchecked")
             SlideElement<T> cloned = (SlideElement<T>) super.clone();
-            cloned.id = UUID.randomUUID().toString();
+            cloned.id = CompactId.next();
+            cloned.legacyId = null;
             cloned.selected = false;
+            cloned.spatialIndex = null;
+            cloned.selectionModel = null;
+            cloned.version = ModelVersion.next();
             if (style != null) {
                 cloned.style = (T) style.clone();
             }
@@ -124,73 +327,133 @@ public abstract class SlideElement<T extends ElementStyle> implements Cloneable,
     }
     
     // Getter和Setter方法
-    public String getId() { return id; }
+    public String getId() { return legacyId != null ? legacyId : CompactId.toString(id); }
+    
+    /**
+     * 64位id，索引和比较时使用，不分配字符串
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public long getIdValue() { return id; }
+    
+    // 反序列化时恢复id：紧凑形式直接解析，旧文件的UUID字符串原样保留
+    @com.fasterxml.jackson.annotation.JsonProperty("id")
+    private void setId(String id) {
+        if (id == null) return;
+        this.id = CompactId.parse(id);
+        this.legacyId = CompactId.isCompact(id) ? null : id;
+    }
     public ElementType getType() { return type; }
     
     public double getX() { return x; }
-    public void setX(double x) { this.x = x; }
+    public void setX(double x) { 
+        this.x = x; 
+        notifyGeometryChanged();
+    }
     
     public double getY() { return y; }
-    public void setY(double y) { this.y = y; }
+    public void setY(double y) { 
+        this.y = y; 
+        notifyGeometryChanged();
+    }
     
     public double getWidth() { return width; }
-    public void setWidth(double width) { this.width = width; }
+    public void setWidth(double width) { 
+        this.width = width; 
+        markContentChanged();
+        notifyGeometryChanged();
+    }
     
     public double getHeight() { return height; }
-    public void setHeight(double height) { this.height = height; }
+    public void setHeight(double height) { 
+        this.height = height; 
+        markContentChanged();
+        notifyGeometryChanged();
+    }
     
     public double getRotation() { return rotation; }
-    public void setRotation(double rotation) { this.rotation = rotation; }
+    public void setRotation(double rotation) { 
+        this.rotation = rotation; 
+        notifyGeometryChanged();
+    }
     
     public boolean isVisible() { return visible; }
-    public void setVisible(boolean visible) { this.visible = visible; }
+    public void setVisible(boolean visible) { 
+        this.visible = visible; 
+        touch();
+    }
     
     public boolean isSelected() { return selected; }
     public void setSelected(boolean selected) { this.selected = selected; }
     
     public boolean isLocked() { return locked; }
-    public void setLocked(boolean locked) { this.locked = locked; }
+    public void setLocked(boolean locked) { 
+        this.locked = locked; 
+        touch();
+    }
     
     public int getZIndex() { return zIndex; }
-    public void setZIndex(int zIndex) { this.zIndex = zIndex; }
+    public void setZIndex(int zIndex) { 
+        if (this.zIndex != zIndex) {
+            this.zIndex = zIndex;
+            touch();
+        }
+    }
     
     public T getStyle() { return style; }
-    public void setStyle(T style) { this.style = style; }
+    public void setStyle(T style) { 
+        this.style = style; 
+        markContentChanged();
+    }
     
     public String getHyperlink() { return hyperlink; }
-    public void setHyperlink(String hyperlink) { this.hyperlink = hyperlink; }
+    public void setHyperlink(String hyperlink) { 
+        this.hyperlink = hyperlink; 
+        markContentChanged();
+    }
     
     // 位置和大小操作方法 - 方法重载
     public void setPosition(double x, double y) {
         this.x = x;
         this.y = y;
+        notifyGeometryChanged();
     }
     
     public void setPosition(Point point) {
         this.x = point.x;
         this.y = point.y;
+        notifyGeometryChanged();
     }
     
     public void setSize(double width, double height) {
         this.width = width;
         this.height = height;
+        markContentChanged();
+        notifyGeometryChanged();
     }
     
     public void setSize(Dimension size) {
         this.width = size.width;
         this.height = size.height;
+        markContentChanged();
+        notifyGeometryChanged();
     }
     
     public void setBounds(double x, double y, double width, double height) {
+        boolean resized = this.width != width || this.height != height;
         this.x = x;
         this.y = y;
         this.width = width;
         this.height = height;
+        if (resized) {
+            markContentChanged();
+        }
+        notifyGeometryChanged();
     }
     
     public void move(double deltaX, double deltaY) {
         this.x += deltaX;
         this.y += deltaY;
+        notifyGeometryChanged();
     }
     
     public void resize(double deltaWidth, double deltaHeight) {
@@ -198,5 +461,7 @@ public abstract class SlideElement<T extends ElementStyle> implements Cloneable,
         this.height += deltaHeight;
         if (this.width < 1) this.width = 1;
         if (this.height < 1) this.height = 1;
+        markContentChanged();
+        notifyGeometryChanged();
     }
 } 
\ No newline at end of file
@@ -20,7 +20,8 @@ public class SlideMaster implements Cloneable {
     public static final int FOOTER_HEIGHT = 40;
     public static final int MARGIN = 20;
     @Serializable(required = true)
-    private String id;
+    private long id;
+    private String legacyId; // 旧文件的原始id字符串
     @Serializable
     private String name;
     @Serializable
@@ -52,7 +53,7 @@ public class SlideMaster implements Cloneable {
     private boolean showDateTime;
     
     public SlideMaster() {
-        this.id = java.util.UUID.randomUUID().toString();
+        this.id = CompactId.next();
         this.name = "默认母版";
         this.slideSize = new Dimension(STANDARD_SIZE);
         this.backgroundColor = Color.WHITE;
@@ -574,6 +575,7 @@ public class SlideMaster implements Cloneable {
                 shapeStyle.setFillColor(theme.getSecondaryColor());
                 shapeStyle.setBorderColor(theme.getPrimaryColor());
             }
+            element.markContentChanged();
         }
     }
     
@@ -581,7 +583,8 @@ public class SlideMaster implements Cloneable {
     public SlideMaster clone() {
         try {
             SlideMaster cloned = (SlideMaster) super.clone();
-            cloned.id = java.util.UUID.randomUUID().toString();
+            cloned.id = CompactId.next();
+            cloned.legacyId = null;
             cloned.masterElements = new ArrayList<>();
             
             // 克隆母版元素
@@ -600,7 +603,17 @@ public class SlideMaster implements Cloneable {
     }
     
     // Getter和Setter方法
-    public String getId() { return id; }
+    public String getId() { return legacyId != null ? legacyId : CompactId.toString(id); }
+    
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public long getIdValue() { return id; }
+    
+    @com.fasterxml.jackson.annotation.JsonProperty("id")
+    private void setId(String id) {
+        if (id == null) return;
+        this.id = CompactId.parse(id);
+        this.legacyId = CompactId.isCompact(id) ? null : id;
+    }
     
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
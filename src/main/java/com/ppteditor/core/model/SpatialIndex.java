@@ -0,0 +1,181 @@
+package com.ppteditor.core.model;
+
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+
+/**
+ * 幻灯片元素的空间索引（均匀网格）
+ * 每个元素按其渲染边界登记到覆盖的网格单元中，命中测试和框选只需检查相关单元
+ * 元素几何属性变化时只标记为脏，在下一次查询前统一更新
+ */
+public class SpatialIndex {
+
+    // 网格单元大小（幻灯片坐标）
+    public static final int CELL_SIZE = 64;
+    // 覆盖单元数超过该值的元素不进入网格，每次查询都直接检查
+    private static final int MAX_CELLS_PER_ELEMENT = 256;
+
+    private final Map<Long, List<SlideElement<?>>> cells;
+    private final Map<SlideElement<?>, Rectangle> registeredCells; // 元素登记时覆盖的单元范围
+    private final Set<SlideElement<?>> oversizedElements;
+    private final Set<SlideElement<?>> dirtyElements;
+
+    public SpatialIndex() {
+        this.cells = new HashMap<>();
+        this.registeredCells = new IdentityHashMap<>();
+        this.oversizedElements = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.dirtyElements = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    public void add(SlideElement<?> element) {
+        if (element == null || registeredCells.containsKey(element)) return;
+        element.spatialIndex = this;
+        insert(element);
+    }
+
+    public void remove(SlideElement<?> element) {
+        if (element == null || !registeredCells.containsKey(element)) return;
+        erase(element);
+        dirtyElements.remove(element);
+        if (element.spatialIndex == this) {
+            element.spatialIndex = null;
+        }
+    }
+
+    public void clear() {
+        for (SlideElement<?> element : registeredCells.keySet()) {
+            if (element.spatialIndex == this) {
+                element.spatialIndex = null;
+            }
+        }
+        cells.clear();
+        registeredCells.clear();
+        oversizedElements.clear();
+        dirtyElements.clear();
+    }
+
+    /**
+     * 标记元素几何属性已变化，下次查询前重新登记
+     */
+    void markDirty(SlideElement<?> element) {
+        if (registeredCells.containsKey(element)) {
+            dirtyElements.add(element);
+        }
+    }
+
+    /**
+     * 查询渲染边界可能包含该点的元素（候选集，未排序）
+     */
+    public List<SlideElement<?>> query(Point point) {
+        flush();
+        List<SlideElement<?>> result = new ArrayList<>(oversizedElements);
+        List<SlideElement<?>> cell = cells.get(key(cellOf(point.x), cellOf(point.y)));
+        if (cell != null) {
+            result.addAll(cell);
+        }
+        return result;
+    }
+
+    /**
+     * 查找包含该点的最上层元素，直接遍历候选元素，不创建中间列表
+     */
+    public SlideElement<?> findTopAt(Point point) {
+        flush();
+        SlideElement<?> top = null;
+        for (SlideElement<?> element : oversizedElements) {
+            if ((top == null || element.getZIndex() > top.getZIndex()) && element.contains(point.x, point.y)) {
+                top = element;
+            }
+        }
+        List<SlideElement<?>> cell = cells.get(key(cellOf(point.x), cellOf(point.y)));
+        if (cell != null) {
+            for (int i = 0; i < cell.size(); i++) {
+                SlideElement<?> element = cell.get(i);
+                if ((top == null || element.getZIndex() > top.getZIndex()) && element.contains(point.x, point.y)) {
+                    top = element;
+                }
+            }
+        }
+        return top;
+    }
+
+    /**
+     * 查询渲染边界可能与区域相交的元素（候选集，未排序，无重复）
+     */
+    public List<SlideElement<?>> query(Rectangle area) {
+        flush();
+        Set<SlideElement<?>> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        found.addAll(oversizedElements);
+        int minX = cellOf(area.x);
+        int minY = cellOf(area.y);
+        int maxX = cellOf(area.x + area.width);
+        int maxY = cellOf(area.y + area.height);
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                List<SlideElement<?>> cell = cells.get(key(cx, cy));
+                if (cell != null) {
+                    found.addAll(cell);
+                }
+            }
+        }
+        return new ArrayList<>(found);
+    }
+
+    public int getElementCount() {
+        return registeredCells.size();
+    }
+
+    // 重新登记所有脏元素
+    private void flush() {
+        if (dirtyElements.isEmpty()) return;
+        for (SlideElement<?> element : dirtyElements) {
+            erase(element);
+            insert(element);
+        }
+        dirtyElements.clear();
+    }
+
+    private void insert(SlideElement<?> element) {
+        Rectangle bounds = element.getRenderBounds();
+        Rectangle range = new Rectangle(cellOf(bounds.x), cellOf(bounds.y), 0, 0);
+        range.add(cellOf(bounds.x + bounds.width), cellOf(bounds.y + bounds.height));
+        registeredCells.put(element, range);
+
+        if ((long) (range.width + 1) * (range.height + 1) > MAX_CELLS_PER_ELEMENT) {
+            oversizedElements.add(element);
+            return;
+        }
+        for (int cx = range.x; cx <= range.x + range.width; cx++) {
+            for (int cy = range.y; cy <= range.y + range.height; cy++) {
+                cells.computeIfAbsent(key(cx, cy), k -> new ArrayList<>(4)).add(element);
+            }
+        }
+    }
+
+    private void erase(SlideElement<?> element) {
+        Rectangle range = registeredCells.remove(element);
+        if (range == null) return;
+        if (oversizedElements.remove(element)) return;
+        for (int cx = range.x; cx <= range.x + range.width; cx++) {
+            for (int cy = range.y; cy <= range.y + range.height; cy++) {
+                Long key = key(cx, cy);
+                List<SlideElement<?>> cell = cells.get(key);
+                if (cell != null) {
+                    cell.remove(element);
+                    if (cell.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int cellOf(int coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ppteditor.core.model;
+
+import java.awt.BasicStroke;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 描边缓存
+ * 按（线宽、线型）复用BasicStroke对象；BasicStroke不可变，可在多个元素和导出线程之间共享
+ */
+public class StrokeCache {
+
+    // 线型，与ShapeStyle.borderStyle取值一致
+    public static final int SOLID = 0;
+    public static final int DASHED = 1;
+    public static final int DOTTED = 2;
+
+    private static volatile StrokeCache instance;
+
+    private final Map<Long, BasicStroke> strokes;
+
+    private StrokeCache() {
+        this.strokes = new ConcurrentHashMap<>();
+    }
+
+    // 单例模式 - 双重检查锁定
+    public static StrokeCache getInstance() {
+        if (instance == null) {
+            synchronized (StrokeCache.class) {
+                if (instance == null) {
+                    instance = new StrokeCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 取得指定线宽和线型的描边，相同参数返回同一个对象
+     */
+    public BasicStroke getStroke(float width, int dashStyle) {
+        long key = ((long) Float.floatToIntBits(width) << 32) | (dashStyle & 0xFFFFFFFFL);
+        BasicStroke stroke = strokes.get(key);
+        if (stroke == null) {
+            stroke = strokes.computeIfAbsent(key, k -> createStroke(width, dashStyle));
+        }
+        return stroke;
+    }
+
+    private static BasicStroke createStroke(float width, int dashStyle) {
+        switch (dashStyle) {
+            case DASHED:
+                return new BasicStroke(width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, new float[]{10}, 0);
+            case DOTTED:
+                return new BasicStroke(width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, new float[]{2}, 0);
+            default:
+                return new BasicStroke(width);
+        }
+    }
+
+    public int getStrokeCount() {
+        return strokes.size();
+    }
+
+    public void clear() {
+        strokes.clear();
+    }
+}
@@ -25,6 +25,12 @@ public class TextElement extends SlideElement<TextStyle> implements java.io.Seri
     @Serializable
     private boolean useSegments; // 是否使用文本片段模式
     
+    // 超链接文本颜色
+    private static final Color HYPERLINK_COLOR = new Color(0, 102, 204);
+    
+    // 文本布局缓存（换行结果、行位置和度量），文本、样式或尺寸变化时重建
+    private transient TextLayoutCache layoutCache;
+    
     public TextElement() {
         super(ElementType.TEXT);
         this.text = "文本";
@@ -59,78 +65,116 @@ public class TextElement extends SlideElement<TextStyle> implements java.io.Seri
             g2d.fillRect((int)x, (int)y, (int)width, (int)height);
         }
         
-        // 绘制文本
-        g2d.setFont(style.getFont());
+        // 取得布局（缓存有效时直接复用）
+        TextLayoutCache layout = getLayout();
         
-        // 如果有超链接，使用超链接样式
-        if (hyperlink != null && !hyperlink.trim().isEmpty()) {
-            g2d.setColor(new Color(0, 102, 204)); // 蓝色
+        // 绘制文本
+        if (useSegments && !textSegments.isEmpty()) {
+            drawSegmentedText(g2d, layout);
         } else {
-            g2d.setColor(style.getTextColor());
+            g2d.setFont(layout.font);
+            
+            // 如果有超链接，使用超链接样式
+            boolean linked = hyperlink != null && !hyperlink.trim().isEmpty();
+            g2d.setColor(linked ? HYPERLINK_COLOR : style.getTextColor());
+            
+            // 绘制文本和下划线（原有的下划线样式或超链接下划线）
+            drawText(g2d, layout, style.isUnderline() || linked);
+        }
+    }
+    
+    /**
+     * 取得文本布局，文本、样式或尺寸变化时重新计算
+     * 度量统一通过TextMeasurer完成，布局与绘制目标无关
+     */
+    private TextLayoutCache getLayout() {
+        if (style == null) {
+            style = createDefaultStyle();
+        }
+        if (layoutCache != null && layoutCache.matches(this)) {
+            return layoutCache;
         }
         
-        FontMetrics fm = g2d.getFontMetrics();
+        TextMeasurer measurer = TextMeasurer.getInstance();
+        Font font = style.getFont();
+        FontMetrics fm = measurer.getFontMetrics(font);
         
         // 如果启用自动调整大小
         if (autoSize) {
-            Rectangle2D textBounds = fm.getStringBounds(text, g2d);
-            this.width = textBounds.getWidth() + 10; // 添加一些边距
-            this.height = textBounds.getHeight() + 5;
+            Rectangle2D textBounds = measurer.getStringBounds(font, text);
+            double newWidth = textBounds.getWidth() + 10; // 添加一些边距
+            double newHeight = textBounds.getHeight() + 5;
+            if (newWidth != width || newHeight != height) {
+                this.width = newWidth;
+                this.height = newHeight;
+                notifyGeometryChanged();
+            }
         }
         
-        // 计算文本位置
-        int textY = calculateTextY(fm);
-        
-        // 绘制文本
+        int lineHeight = (int)(fm.getHeight() * style.getLineSpacing());
+        LayoutLine[] lines;
         if (useSegments && !textSegments.isEmpty()) {
-            drawSegmentedText(g2d, textY);
+            lines = layoutSegmentLines(measurer);
         } else {
-            drawText(g2d, textY);
-            
-            // 绘制下划线（原有的下划线样式或超链接下划线）
-            if (style.isUnderline() || (hyperlink != null && !hyperlink.trim().isEmpty())) {
-                drawUnderline(g2d, textY, fm);
-            }
+            lines = layoutPlainLines(font, fm);
         }
+        double baseline = calculateTextY(fm);
+        HyperlinkRegion[] regions = collectHyperlinkRegions(lines, baseline, lineHeight, measurer);
+        layoutCache = new TextLayoutCache(this, font, baseline, lineHeight, lines, regions);
+        return layoutCache;
     }
     
-    private int calculateTextX(FontMetrics fm, String line) {
+    // 普通文本：自动换行后每行一个片段
+    private LayoutLine[] layoutPlainLines(Font font, FontMetrics fm) {
+        java.util.List<String> wrappedLines = wrapText(text, fm, (int)width - 10); // 减去边距
+        LayoutLine[] lines = new LayoutLine[wrappedLines.size()];
+        for (int i = 0; i < lines.length; i++) {
+            String line = wrappedLines.get(i);
+            int lineWidth = fm.stringWidth(line);
+            LayoutRun[] runs = { new LayoutRun(line, font, null, 0, lineWidth) };
+            lines[i] = new LayoutLine(calculateTextX(lineWidth), lineWidth, runs);
+        }
+        return lines;
+    }
+    
+    // 相对元素左边的行起始位置
+    private double calculateTextX(int lineWidth) {
         switch (style.getAlignment()) {
             case TextStyle.ALIGN_CENTER: // 居中
-                return (int)(x + (width - fm.stringWidth(line)) / 2);
+                return (width - lineWidth) / 2;
             case TextStyle.ALIGN_RIGHT: // 右对齐
-                return (int)(x + width - fm.stringWidth(line) - 5);
+                return width - lineWidth - 5;
             default: // 左对齐
-                return (int)x + 5;
+                return 5;
         }
     }
     
-    private int calculateTextY(FontMetrics fm) {
-        String[] lines = text.split("\n");
-        int totalTextHeight = lines.length * (int)(fm.getHeight() * style.getLineSpacing());
+    // 相对元素顶部的第一行基线位置
+    private double calculateTextY(FontMetrics fm) {
+        int paragraphCount = text != null ? text.split("\n").length : 1;
+        int totalTextHeight = paragraphCount * (int)(fm.getHeight() * style.getLineSpacing());
         
         // 如果是左对齐的文本（通常是正文），从顶部开始显示
         if (style.getAlignment() == TextStyle.ALIGN_LEFT) {
-            return (int)(y + fm.getAscent() + 5); // 顶部对齐，加5像素边距
+            return fm.getAscent() + 5; // 顶部对齐，加5像素边距
         } else {
             // 其他对齐方式（居中、右对齐）保持垂直居中
-            return (int)(y + fm.getAscent() + (height - totalTextHeight) / 2);
+            return fm.getAscent() + (height - totalTextHeight) / 2;
         }
     }
     
-    private void drawText(Graphics2D g2d, int baseY) {
-        FontMetrics fm = g2d.getFontMetrics();
-        int lineHeight = (int)(fm.getHeight() * style.getLineSpacing());
-        
-        // 自动换行处理
-        java.util.List<String> wrappedLines = wrapText(text, fm, (int)width - 10); // 减去边距
-        
-        for (int i = 0; i < wrappedLines.size(); i++) {
-            int currentY = baseY + i * lineHeight;
+    private void drawText(Graphics2D g2d, TextLayoutCache layout, boolean underline) {
+        int baseY = (int)(y + layout.baseline);
+        LayoutLine[] lines = layout.lines;
+        for (int i = 0; i < lines.length; i++) {
+            int currentY = baseY + i * layout.lineHeight;
             if (currentY <= y + height) { // 确保文本在边界内
-                String line = wrappedLines.get(i);
-                int textX = calculateTextX(fm, line);
-                g2d.drawString(line, textX, currentY);
+                LayoutLine line = lines[i];
+                int textX = (int)(x + line.x);
+                g2d.drawString(line.runs[0].text, textX, currentY);
+                if (underline) {
+                    g2d.drawLine(textX, currentY + 2, textX + line.width, currentY + 2);
+                }
             }
         }
     }
@@ -195,20 +239,6 @@ public class TextElement extends SlideElement<TextStyle> implements java.io.Seri
         return wrappedLines;
     }
     
-    private void drawUnderline(Graphics2D g2d, int baseY, FontMetrics fm) {
-        String[] lines = text.split("\n");
-        int lineHeight = (int)(fm.getHeight() * style.getLineSpacing());
-        
-        for (int i = 0; i < lines.length; i++) {
-            int currentY = baseY + i * lineHeight;
-            if (currentY <= y + height) {
-                int textX = calculateTextX(fm, lines[i]);
-                int lineWidth = fm.stringWidth(lines[i]);
-                g2d.drawLine(textX, currentY + 2, textX + lineWidth, currentY + 2);
-            }
-        }
-    }
-    
     @Override
     public TextStyle createDefaultStyle() {
         return new TextStyle();
@@ -219,12 +249,6 @@ public class TextElement extends SlideElement<TextStyle> implements java.io.Seri
         return new Rectangle((int)x, (int)y, (int)width, (int)height);
     }
     
-    @Override
-    public boolean contains(Point point) {
-        return point.x >= x && point.x <= x + width && 
-               point.y >= y && point.y <= y + height;
-    }
-    
     // 静态工厂方法
     public static TextElement createTitle(String text) {
         TextElement element = new TextElement(text);
@@ -258,8 +282,22 @@ public class TextElement extends SlideElement<TextStyle> implements java.io.Seri
     // Getter和Setter方法
     public String getText() { return text; }
     
+    @Override
+    public long estimateMemoryBytes() {
+        long bytes = super.estimateMemoryBytes() + estimateStringBytes(text);
+        if (textSegments != null) {
+            for (TextSegment segment : textSegments) {
+                bytes += 64 + estimateStringBytes(segment.getText()) + estimateStringBytes(segment.getHyperlink());
+            }
+        }
+        return bytes;
+    }
+    
     public boolean isAutoSize() { return autoSize; }
-    public void setAutoSize(boolean autoSize) { this.autoSize = autoSize; }
+    public void setAutoSize(boolean autoSize) { 
+        this.autoSize = autoSize; 
+        markContentChanged();
+    }
     
     /**
      * 初始化文本片段
@@ -274,47 +312,188 @@ public class TextElement extends SlideElement<TextStyle> implements java.io.Seri
     /**
      * 绘制分段文本（支持部分超链接和对齐）
      */
-    private void drawSegmentedText(Graphics2D g2d, int baseY) {
-        FontMetrics baseFm = g2d.getFontMetrics();
-        int lineHeight = (int)(baseFm.getHeight() * style.getLineSpacing());
-        
-        // 首先构建所有行的内容，以便计算对齐位置
-        List<SegmentLine> lines = buildSegmentLines();
-        
-        int currentY = baseY;
-        for (SegmentLine line : lines) {
-            // 计算整行的对齐位置
-            int lineX = calculateLineX(line);
-            int currentX = lineX;
+    private void drawSegmentedText(Graphics2D g2d, TextLayoutCache layout) {
+        int currentY = (int)(y + layout.baseline);
+        for (LayoutLine line : layout.lines) {
+            // 整行的对齐位置
+            int lineX = (int)(x + line.x);
             
             // 绘制该行的所有片段
-            for (SegmentPart part : line.parts) {
-                // 设置片段样式
-                Font segmentFont = createSegmentFont(part.segment);
-                g2d.setFont(segmentFont);
-                FontMetrics fm = g2d.getFontMetrics();
+            for (LayoutRun run : line.runs) {
+                g2d.setFont(run.font);
                 
                 // 设置片段颜色
-                Color segmentColor = part.segment.getTextColor();
+                Color segmentColor = run.segment.getTextColor();
                 if (segmentColor == null) {
-                    segmentColor = part.segment.isHyperlink() ? new Color(0, 102, 204) : style.getTextColor();
+                    segmentColor = run.segment.isHyperlink() ? HYPERLINK_COLOR : style.getTextColor();
                 }
                 g2d.setColor(segmentColor);
                 
                 // 绘制文本
-                g2d.drawString(part.text, currentX, currentY);
+                int currentX = lineX + run.offset;
+                g2d.drawString(run.text, currentX, currentY);
                 
                 // 绘制下划线
-                if (part.segment.isUnderline() || part.segment.isHyperlink()) {
-                    int lineWidth = fm.stringWidth(part.text);
-                    g2d.drawLine(currentX, currentY + 2, currentX + lineWidth, currentY + 2);
+                if (run.segment.isUnderline() || run.segment.isHyperlink()) {
+                    g2d.drawLine(currentX, currentY + 2, currentX + run.width, currentY + 2);
                 }
-                
-                // 更新X位置
-                currentX += fm.stringWidth(part.text);
             }
             
-            currentY += lineHeight;
+            currentY += layout.lineHeight;
+        }
+    }
+    
+    // 分段文本：按换行符分行，每行由若干片段组成
+    private LayoutLine[] layoutSegmentLines(TextMeasurer measurer) {
+        List<SegmentLine> segmentLines = buildSegmentLines();
+        LayoutLine[] lines = new LayoutLine[segmentLines.size()];
+        for (int i = 0; i < lines.length; i++) {
+            List<SegmentPart> parts = segmentLines.get(i).parts;
+            LayoutRun[] runs = new LayoutRun[parts.size()];
+            int offset = 0;
+            for (int j = 0; j < runs.length; j++) {
+                SegmentPart part = parts.get(j);
+                Font segmentFont = createSegmentFont(part.segment);
+                int partWidth = measurer.stringWidth(segmentFont, part.text);
+                runs[j] = new LayoutRun(part.text, segmentFont, part.segment, offset, partWidth);
+                offset += partWidth;
+            }
+            lines[i] = new LayoutLine(calculateTextX(offset), offset, runs);
+        }
+        return lines;
+    }
+    
+    // 布局中的一个片段：文本、字体和相对行首的偏移
+    private static class LayoutRun {
+        final String text;
+        final Font font;
+        final TextSegment segment; // 普通文本为null
+        final int offset;
+        final int width;
+        
+        LayoutRun(String text, Font font, TextSegment segment, int offset, int width) {
+            this.text = text;
+            this.font = font;
+            this.segment = segment;
+            this.offset = offset;
+            this.width = width;
+        }
+    }
+    
+    // 布局中的一行：相对元素左边的起始位置和总宽度
+    private static class LayoutLine {
+        final double x;
+        final int width;
+        final LayoutRun[] runs;
+        
+        LayoutLine(double x, int width, LayoutRun[] runs) {
+            this.x = x;
+            this.width = width;
+            this.runs = runs;
+        }
+    }
+    
+    // 超链接片段的命中区域，坐标相对元素左上角
+    private static class HyperlinkRegion {
+        final double left, top, width, height;
+        final String hyperlink;
+        
+        HyperlinkRegion(double left, double top, double width, double height, String hyperlink) {
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+            this.hyperlink = hyperlink;
+        }
+        
+        boolean contains(double px, double py) {
+            return px >= left && px < left + width && py >= top && py < top + height;
+        }
+    }
+    
+    // 根据布局结果计算超链接片段的命中区域，与绘制位置一致
+    private HyperlinkRegion[] collectHyperlinkRegions(LayoutLine[] lines, double baseline, int lineHeight,
+                                                      TextMeasurer measurer) {
+        List<HyperlinkRegion> regions = new ArrayList<>();
+        for (int i = 0; i < lines.length; i++) {
+            double lineBaseline = baseline + i * lineHeight;
+            for (LayoutRun run : lines[i].runs) {
+                if (run.segment == null || !run.segment.isHyperlink() || run.width == 0) continue;
+                FontMetrics fm = measurer.getFontMetrics(run.font);
+                regions.add(new HyperlinkRegion(lines[i].x + run.offset, lineBaseline - fm.getAscent(),
+                                                run.width, fm.getHeight(), run.segment.getHyperlink()));
+            }
+        }
+        regions.sort((r1, r2) -> Double.compare(r1.top, r2.top));
+        return regions.toArray(new HyperlinkRegion[0]);
+    }
+    
+    /**
+     * 文本布局缓存
+     * 以内容版本、文本、片段、样式和尺寸为键，位置相对元素左上角，移动元素不会失效
+     */
+    private static class TextLayoutCache {
+        // 缓存键
+        final long contentVersion;
+        final String text;
+        final List<TextSegment> segments;
+        final boolean useSegments;
+        final double width, height;
+        final String fontFamily;
+        final int fontSize;
+        final boolean bold, italic;
+        final int alignment;
+        final double lineSpacing;
+        
+        // 布局结果
+        final Font font;
+        final double baseline; // 第一行基线相对元素顶部的偏移
+        final int lineHeight;
+        final LayoutLine[] lines;
+        final HyperlinkRegion[] hyperlinkRegions; // 按顶边排序
+        final double maxRegionHeight;
+        
+        TextLayoutCache(TextElement element, Font font, double baseline, int lineHeight, LayoutLine[] lines,
+                        HyperlinkRegion[] hyperlinkRegions) {
+            TextStyle style = element.style;
+            this.contentVersion = element.contentVersion;
+            this.text = element.text;
+            this.segments = element.textSegments;
+            this.useSegments = element.useSegments;
+            this.width = element.width;
+            this.height = element.height;
+            this.fontFamily = style.getFontFamily();
+            this.fontSize = style.getFontSize();
+            this.bold = style.isBold();
+            this.italic = style.isItalic();
+            this.alignment = style.getAlignment();
+            this.lineSpacing = style.getLineSpacing();
+            this.font = font;
+            this.baseline = baseline;
+            this.lineHeight = lineHeight;
+            this.lines = lines;
+            this.hyperlinkRegions = hyperlinkRegions;
+            double maxHeight = 0;
+            for (HyperlinkRegion region : hyperlinkRegions) {
+                maxHeight = Math.max(maxHeight, region.height);
+            }
+            this.maxRegionHeight = maxHeight;
+        }
+        
+        boolean matches(TextElement element) {
+            TextStyle style = element.style;
+            return contentVersion == element.contentVersion &&
+                   text == element.text &&
+                   segments == element.textSegments &&
+                   useSegments == element.useSegments &&
+                   width == element.width &&
+                   height == element.height &&
+                   java.util.Objects.equals(fontFamily, style.getFontFamily()) &&
+                   fontSize == style.getFontSize() &&
+                   bold == style.isBold() &&
+                   italic == style.isItalic() &&
+                   alignment == style.getAlignment() &&
+                   lineSpacing == style.getLineSpacing();
         }
     }
     
@@ -372,38 +551,13 @@ public class TextElement extends SlideElement<TextStyle> implements java.io.Seri
         return lines;
     }
     
-    // 计算行的X位置（支持对齐）
-    private int calculateLineX(SegmentLine line) {
-        // 创建临时Graphics2D计算文本宽度
-        java.awt.image.BufferedImage img = new java.awt.image.BufferedImage(1, 1, java.awt.image.BufferedImage.TYPE_INT_RGB);
-        Graphics2D tempG2d = img.createGraphics();
-        tempG2d.setFont(style.getFont());
-        FontMetrics fm = tempG2d.getFontMetrics();
-        int totalWidth = 0;
-        for (SegmentPart part : line.parts) {
-            Font segmentFont = createSegmentFont(part.segment);
-            tempG2d.setFont(segmentFont);
-            FontMetrics segmentFm = tempG2d.getFontMetrics();
-            totalWidth += segmentFm.stringWidth(part.text);
-        }
-        tempG2d.dispose();
-        // 根据对齐方式计算X位置
-        switch (style.getAlignment()) {
-            case TextStyle.ALIGN_CENTER: // 居中
-                return (int)(x + (width - totalWidth) / 2);
-            case TextStyle.ALIGN_RIGHT: // 右对齐
-                return (int)(x + width - totalWidth - 5);
-            default: // 左对齐
-                return (int)x + 5;
-        }
-    }
     //为文本片段创建字体
     private Font createSegmentFont(TextSegment segment) {
         int fontStyle = Font.PLAIN;
         if (style.isBold() || segment.isBold()) fontStyle |= Font.BOLD;
         if (style.isItalic() || segment.isItalic()) fontStyle |= Font.ITALIC;
         
-        return new Font(style.getFontFamily(), fontStyle, style.getFontSize());
+        return FontRegistry.getInstance().getFont(style.getFontFamily(), fontStyle, style.getFontSize());
     }
     //设置文本（保留现有的文本段设置）
     public void setText(String text) {
@@ -411,6 +565,7 @@ public class TextElement extends SlideElement<TextStyle> implements java.io.Seri
         if (!useSegments && (textSegments == null || textSegments.isEmpty())) {
             initializeSegments();
         }
+        markContentChanged();
     }
     public void setHyperlinkForSelection(int startIndex, int endIndex, String hyperlink) {
         if (startIndex < 0 || endIndex > text.length() || startIndex >= endIndex) {
@@ -429,6 +584,7 @@ public class TextElement extends SlideElement<TextStyle> implements java.io.Seri
             newSegments.add(new TextSegment(text.substring(endIndex)));
         }
         this.textSegments = newSegments;
+        markContentChanged();
     }
     
     /**
@@ -438,55 +594,44 @@ public class TextElement extends SlideElement<TextStyle> implements java.io.Seri
         if (!useSegments || textSegments.isEmpty()) {
             return hyperlink; // 返回整个元素的超链接
         }
-        // 创建临时Graphics2D用于计算文本位置
-        java.awt.image.BufferedImage img = new java.awt.image.BufferedImage(1, 1, java.awt.image.BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = img.createGraphics();
-        g2d.setFont(style.getFont());
-        FontMetrics fm = g2d.getFontMetrics();
-        // 计算基础Y位置
-        int baseY = calculateTextY(fm);
-        int lineHeight = (int)(fm.getHeight() * style.getLineSpacing());
-        // 遍历文本片段，找到点击位置的片段
-        int currentX = (int)x + 5;
-        int currentY = baseY;
-        for (TextSegment segment : textSegments) {
-            String segmentText = segment.getText();
-            if (segmentText == null || segmentText.isEmpty()) continue;
-            // 设置片段字体
-            Font segmentFont = createSegmentFont(segment);
-            g2d.setFont(segmentFont);
-            fm = g2d.getFontMetrics();
-            // 处理换行
-            String[] lines = segmentText.split("\n");
-            for (int i = 0; i < lines.length; i++) {
-                String line = lines[i];
-                if (i > 0) {
-                    // 换行
-                    currentY += lineHeight;
-                    currentX = (int)x + 5;
-                }
-                // 检查点击位置是否在当前行的片段范围内
-                int lineWidth = fm.stringWidth(line);
-                Rectangle segmentBounds = new Rectangle(currentX, currentY - fm.getAscent(), 
-                                                       lineWidth, fm.getHeight());
-                if (segmentBounds.contains(point) && segment.isHyperlink()) {
-                    g2d.dispose();
-                    return segment.getHyperlink();
-                }
-                // 更新X位置
-                currentX += lineWidth;
+        // 命中区域随布局一起计算，只在文本、片段、样式或尺寸变化时重建
+        TextLayoutCache layout = getLayout();
+        HyperlinkRegion[] regions = layout.hyperlinkRegions;
+        if (regions.length == 0) return null;
+        
+        double px = point.x - x;
+        double py = point.y - y;
+        // 二分查找最后一个顶边不大于py的区域，再向前检查可能覆盖py的区域
+        int low = 0;
+        int high = regions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (regions[mid].top <= py) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low - 1; i >= 0 && regions[i].top > py - layout.maxRegionHeight; i--) {
+            if (regions[i].contains(px, py)) {
+                return regions[i].hyperlink;
             }
         }
-        g2d.dispose();
         return null;
     }
     
     // Getter和Setter方法
     public List<TextSegment> getTextSegments() { return textSegments; }
-    public void setTextSegments(List<TextSegment> textSegments) { this.textSegments = textSegments; }
+    public void setTextSegments(List<TextSegment> textSegments) { 
+        this.textSegments = textSegments; 
+        markContentChanged();
+    }
     
     public boolean isUseSegments() { return useSegments; }
-    public void setUseSegments(boolean useSegments) { this.useSegments = useSegments; }
+    public void setUseSegments(boolean useSegments) { 
+        this.useSegments = useSegments; 
+        markContentChanged();
+    }
     
     @Override
     public TextElement clone() {
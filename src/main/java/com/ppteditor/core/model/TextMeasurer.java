@@ -0,0 +1,79 @@
+package com.ppteditor.core.model;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 文本度量服务
+ * 使用共享的FontRenderContext（抗锯齿、整数度量，与画布文本渲染一致），按字体缓存FontMetrics，
+ * 换行、对齐、自动调整大小和超链接命中测试都通过它度量，无需Graphics对象
+ */
+public class TextMeasurer {
+
+    private static volatile TextMeasurer instance;
+
+    private final FontRenderContext fontRenderContext;
+    private final Graphics2D measureGraphics; // 仅用于取得FontMetrics，从不绘制
+    private final Map<Font, FontMetrics> metricsCache;
+
+    private TextMeasurer() {
+        BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        this.measureGraphics = image.createGraphics();
+        measureGraphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        measureGraphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_OFF);
+        this.fontRenderContext = measureGraphics.getFontRenderContext();
+        this.metricsCache = new HashMap<>();
+    }
+
+    // 单例模式 - 双重检查锁定
+    public static TextMeasurer getInstance() {
+        if (instance == null) {
+            synchronized (TextMeasurer.class) {
+                if (instance == null) {
+                    instance = new TextMeasurer();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 取得字体的度量信息，每种字体只创建一次
+     */
+    public synchronized FontMetrics getFontMetrics(Font font) {
+        FontMetrics metrics = metricsCache.get(font);
+        if (metrics == null) {
+            metrics = measureGraphics.getFontMetrics(font);
+            metricsCache.put(font, metrics);
+        }
+        return metrics;
+    }
+
+    public int stringWidth(Font font, String text) {
+        return getFontMetrics(font).stringWidth(text);
+    }
+
+    public int getHeight(Font font) {
+        return getFontMetrics(font).getHeight();
+    }
+
+    public int getAscent(Font font) {
+        return getFontMetrics(font).getAscent();
+    }
+
+    public Rectangle2D getStringBounds(Font font, String text) {
+        return getFontMetrics(font).getStringBounds(text, measureGraphics);
+    }
+
+    public FontRenderContext getFontRenderContext() {
+        return fontRenderContext;
+    }
+
+    public synchronized int getCachedFontCount() {
+        return metricsCache.size();
+    }
+}
@@ -44,6 +44,14 @@ public class TextStyle implements ElementStyle, java.io.Serializable {
     @Serializable
     private double lineSpacing;
     
+    // 缓存的字体对象及其对应的字体属性，字体相关属性变化后重新从字体注册表取得
+    private transient Font cachedFont;
+    private transient String cachedFontFamily;
+    private transient int cachedFontStyle;
+    private transient int cachedFontSize;
+    
+    private transient long version; // 模型版本，属性修改时更新
+    
     public TextStyle() {
         this.fontFamily = "宋体";
         this.fontSize = 16;
@@ -54,6 +62,7 @@ public class TextStyle implements ElementStyle, java.io.Serializable {
         this.backgroundColor = Color.WHITE;
         this.alignment = 0;
         this.lineSpacing = 1.0;
+        this.version = ModelVersion.next();
     }
     
     // Builder模式
@@ -131,44 +140,60 @@ public class TextStyle implements ElementStyle, java.io.Serializable {
         this.textColor = colorTheme.getTextColor();
         // 文本框背景保持透明或白色，不使用主题背景色
         // this.backgroundColor = colorTheme.getBackgroundColor(); // 注释掉这行
+        touch();
+    }
+    
+    private void touch() {
+        version = ModelVersion.next();
     }
     
+    @Override
+    @JsonIgnore
+    public long getVersion() { return version; }
+    
     @JsonIgnore
     public Font getFont() {
         int style = Font.PLAIN;
         if (bold) style |= Font.BOLD;
         if (italic) style |= Font.ITALIC;
-        return new Font(fontFamily, style, fontSize);
+        if (cachedFont == null || cachedFontStyle != style || cachedFontSize != fontSize ||
+            !java.util.Objects.equals(cachedFontFamily, fontFamily)) {
+            cachedFont = FontRegistry.getInstance().getFont(fontFamily, style, fontSize);
+            cachedFontFamily = fontFamily;
+            cachedFontStyle = style;
+            cachedFontSize = fontSize;
+        }
+        return cachedFont;
     }
     
     // Getter和Setter方法
     public String getFontFamily() { return fontFamily; }
-    public void setFontFamily(String fontFamily) { this.fontFamily = fontFamily; }
+    public void setFontFamily(String fontFamily) { this.fontFamily = fontFamily; touch(); }
     
     public int getFontSize() { return fontSize; }
-    public void setFontSize(int fontSize) { this.fontSize = fontSize; }
+    public void setFontSize(int fontSize) { this.fontSize = fontSize; touch(); }
     
     public boolean isBold() { return bold; }
-    public void setBold(boolean bold) { this.bold = bold; }
+    public void setBold(boolean bold) { this.bold = bold; touch(); }
     
     public boolean isItalic() { return italic; }
-    public void setItalic(boolean italic) { this.italic = italic; }
+    public void setItalic(boolean italic) { this.italic = italic; touch(); }
     
     public boolean isUnderline() { return underline; }
-    public void setUnderline(boolean underline) { this.underline = underline; }
+    public void setUnderline(boolean underline) { this.underline = underline; touch(); }
     
     public Color getTextColor() { return textColor; }
-    public void setTextColor(Color textColor) { this.textColor = textColor; }
+    public void setTextColor(Color textColor) { this.textColor = textColor; touch(); }
     
     public Color getBackgroundColor() { return backgroundColor; }
     
-    public void setBackgroundColor(Color backgroundColor) { this.backgroundColor = backgroundColor; }
+    public void setBackgroundColor(Color backgroundColor) { this.backgroundColor = backgroundColor; touch(); }
     
     public int getAlignment() { return alignment; }
-    public void setAlignment(int alignment) { this.alignment = alignment; }
+    public void setAlignment(int alignment) { this.alignment = alignment; touch(); }
     
     public double getLineSpacing() { return lineSpacing; }
-    public void setLineSpacing(double lineSpacing) { this.lineSpacing = lineSpacing; }
+    public void setLineSpacing(double lineSpacing) { this.lineSpacing = lineSpacing; touch(); }
     
     // 便捷的对齐方法
     public boolean isLeftAligned() { return alignment == ALIGN_LEFT; }
@@ -176,8 +201,8 @@ public class TextStyle implements ElementStyle, java.io.Serializable {
     public boolean isRightAligned() { return alignment == ALIGN_RIGHT; }
     public boolean isJustifyAligned() { return alignment == ALIGN_JUSTIFY; }
     
-    public void setLeftAlign() { this.alignment = ALIGN_LEFT; }
-    public void setCenterAlign() { this.alignment = ALIGN_CENTER; }
-    public void setRightAlign() { this.alignment = ALIGN_RIGHT; }
-    public void setJustifyAlign() { this.alignment = ALIGN_JUSTIFY; }
+    public void setLeftAlign() { this.alignment = ALIGN_LEFT; touch(); }
+    public void setCenterAlign() { this.alignment = ALIGN_CENTER; touch(); }
+    public void setRightAlign() { this.alignment = ALIGN_RIGHT; touch(); }
+    public void setJustifyAlign() { this.alignment = ALIGN_JUSTIFY; touch(); }
 } 
\ No newline at end of file
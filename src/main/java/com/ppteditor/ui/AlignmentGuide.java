@@ -14,7 +14,6 @@ public class AlignmentGuide {
     
     // 对齐容差（像素）
     private static final int SNAP_TOLERANCE = 8;
-    private static final int GUIDE_TOLERANCE = 5;
     
     // 对齐线样式
     private static final Color GUIDE_COLOR = new Color(255, 0, 0, 150);
@@ -24,184 +23,112 @@ public class AlignmentGuide {
     // 当前显示的对齐线
     private Set<AlignmentLine> activeGuideLines;
     private Rectangle canvasArea;
+    private SnapIndex snapIndex; // 拖拽期间的吸附索引
     
     public AlignmentGuide(Rectangle canvasArea) {
         this.canvasArea = canvasArea;
         this.activeGuideLines = new HashSet<>();
     }
     
+    /**
+     * 拖拽开始时建立吸附索引，之后的每次拖拽事件只做二分查找
+     */
+    public void beginDrag(Collection<SlideElement<?>> otherElements) {
+        this.snapIndex = new SnapIndex(otherElements, canvasArea);
+        this.activeGuideLines = new HashSet<>();
+    }
+    
+    /**
+     * 拖拽结束，释放吸附索引并清除对齐线
+     */
+    public void endDrag() {
+        this.snapIndex = null;
+        clearGuideLines();
+    }
+    
     /**
      * 计算元素拖拽时的对齐位置和显示的对齐线
      */
     public AlignmentResult calculateAlignment(SlideElement<?> draggedElement, 
                                             double newX, double newY, 
                                             Collection<SlideElement<?>> otherElements) {
-        
-        Rectangle draggedBounds = new Rectangle((int)newX, (int)newY, 
-                                              (int)draggedElement.getWidth(), 
-                                              (int)draggedElement.getHeight());
-        
-        double adjustedX = newX;
-        double adjustedY = newY;
-        Set<AlignmentLine> guideLines = new HashSet<>();
-        
-        // 与画布边界对齐
-        AlignmentResult canvasAlignment = alignToCanvas(draggedBounds);
-        if (canvasAlignment.hasAlignment()) {
-            adjustedX = canvasAlignment.getAdjustedX();
-            adjustedY = canvasAlignment.getAdjustedY();
-            guideLines.addAll(canvasAlignment.getGuideLines());
-        }
-        
-        // 与其他元素对齐
-        AlignmentResult elementAlignment = alignToElements(draggedBounds, otherElements);
-        if (elementAlignment.hasAlignment()) {
-            adjustedX = elementAlignment.getAdjustedX();
-            adjustedY = elementAlignment.getAdjustedY();
-            guideLines.addAll(elementAlignment.getGuideLines());
+        if (snapIndex == null) {
+            return calculateAlignment(draggedElement, newX, newY, new SnapIndex(otherElements, canvasArea));
         }
-        
-        // 网格对齐（如果启用）
-        // 这里可以添加网格对齐逻辑
-        
-        this.activeGuideLines = guideLines;
-        return new AlignmentResult(adjustedX, adjustedY, guideLines);
+        return calculateAlignment(draggedElement, newX, newY);
     }
     
     /**
-     * 与画布边界对齐
+     * 使用beginDrag建立的吸附索引计算对齐位置
      */
-    private AlignmentResult alignToCanvas(Rectangle bounds) {
-        double adjustedX = bounds.x;
-        double adjustedY = bounds.y;
-        Set<AlignmentLine> guideLines = new HashSet<>();
-        
-        // 左边界对齐
-        if (Math.abs(bounds.x - canvasArea.x) <= SNAP_TOLERANCE) {
-            adjustedX = canvasArea.x;
-            guideLines.add(new AlignmentLine(canvasArea.x, canvasArea.y, 
-                                           canvasArea.x, canvasArea.y + canvasArea.height, 
-                                           AlignmentType.VERTICAL));
-        }
-        
-        // 右边界对齐
-        if (Math.abs(bounds.x + bounds.width - (canvasArea.x + canvasArea.width)) <= SNAP_TOLERANCE) {
-            adjustedX = canvasArea.x + canvasArea.width - bounds.width;
-            guideLines.add(new AlignmentLine(canvasArea.x + canvasArea.width, canvasArea.y,
-                                           canvasArea.x + canvasArea.width, canvasArea.y + canvasArea.height,
-                                           AlignmentType.VERTICAL));
-        }
-        
-        // 水平居中对齐
-        double canvasCenterX = canvasArea.x + canvasArea.width / 2.0;
-        double elementCenterX = bounds.x + bounds.width / 2.0;
-        if (Math.abs(elementCenterX - canvasCenterX) <= SNAP_TOLERANCE) {
-            adjustedX = canvasCenterX - bounds.width / 2.0;
-            guideLines.add(new AlignmentLine(canvasCenterX, canvasArea.y,
-                                           canvasCenterX, canvasArea.y + canvasArea.height,
-                                           AlignmentType.VERTICAL));
+    public AlignmentResult calculateAlignment(SlideElement<?> draggedElement, double newX, double newY) {
+        if (snapIndex == null) {
+            return new AlignmentResult(newX, newY, Collections.emptySet());
         }
+        return calculateAlignment(draggedElement, newX, newY, snapIndex);
+    }
+    
+    private AlignmentResult calculateAlignment(SlideElement<?> draggedElement, double newX, double newY,
+                                               SnapIndex index) {
+        double width = draggedElement.getWidth();
+        double height = draggedElement.getHeight();
+        double adjustedX = newX;
+        double adjustedY = newY;
+        Set<AlignmentLine> guideLines = new HashSet<>();
         
-        // 顶边界对齐
-        if (Math.abs(bounds.y - canvasArea.y) <= SNAP_TOLERANCE) {
-            adjustedY = canvasArea.y;
-            guideLines.add(new AlignmentLine(canvasArea.x, canvasArea.y,
-                                           canvasArea.x + canvasArea.width, canvasArea.y,
-                                           AlignmentType.HORIZONTAL));
+        // 与画布边界及其他元素的左/右/中心线对齐
+        SnapIndex.SnapMatch matchX = index.snapX(newX, width, SNAP_TOLERANCE);
+        if (matchX != null) {
+            adjustedX = matchX.getAdjustedStart();
         }
         
-        // 底边界对齐
-        if (Math.abs(bounds.y + bounds.height - (canvasArea.y + canvasArea.height)) <= SNAP_TOLERANCE) {
-            adjustedY = canvasArea.y + canvasArea.height - bounds.height;
-            guideLines.add(new AlignmentLine(canvasArea.x, canvasArea.y + canvasArea.height,
-                                           canvasArea.x + canvasArea.width, canvasArea.y + canvasArea.height,
-                                           AlignmentType.HORIZONTAL));
+        // 与画布边界及其他元素的上/下/中心线对齐
+        SnapIndex.SnapMatch matchY = index.snapY(newY, height, SNAP_TOLERANCE);
+        if (matchY != null) {
+            adjustedY = matchY.getAdjustedStart();
         }
         
-        // 垂直居中对齐
-        double canvasCenterY = canvasArea.y + canvasArea.height / 2.0;
-        double elementCenterY = bounds.y + bounds.height / 2.0;
-        if (Math.abs(elementCenterY - canvasCenterY) <= SNAP_TOLERANCE) {
-            adjustedY = canvasCenterY - bounds.height / 2.0;
-            guideLines.add(new AlignmentLine(canvasArea.x, canvasCenterY,
-                                           canvasArea.x + canvasArea.width, canvasCenterY,
-                                           AlignmentType.HORIZONTAL));
+        Rectangle draggedBounds = new Rectangle((int) adjustedX, (int) adjustedY, (int) width, (int) height);
+        if (matchX != null) {
+            guideLines.add(createVerticalGuideLine(matchX.getEdge(), draggedBounds));
         }
-        
-        return new AlignmentResult(adjustedX, adjustedY, guideLines);
-    }
-    
-    /**
-     * 与其他元素对齐
-     */
-    private AlignmentResult alignToElements(Rectangle bounds, Collection<SlideElement<?>> otherElements) {
-        double adjustedX = bounds.x;
-        double adjustedY = bounds.y;
-        Set<AlignmentLine> guideLines = new HashSet<>();
-        
-        for (SlideElement<?> element : otherElements) {
-            Rectangle otherBounds = element.getBounds();
-            
-            // 垂直对齐检查
-            // 左边缘对齐
-            if (Math.abs(bounds.x - otherBounds.x) <= SNAP_TOLERANCE) {
-                adjustedX = otherBounds.x;
-                guideLines.add(createVerticalGuideLine(otherBounds.x, bounds, otherBounds));
-            }
-            
-            // 右边缘对齐
-            if (Math.abs(bounds.x + bounds.width - (otherBounds.x + otherBounds.width)) <= SNAP_TOLERANCE) {
-                adjustedX = otherBounds.x + otherBounds.width - bounds.width;
-                guideLines.add(createVerticalGuideLine(otherBounds.x + otherBounds.width, bounds, otherBounds));
-            }
-            
-            // 水平中心对齐
-            double otherCenterX = otherBounds.x + otherBounds.width / 2.0;
-            double elementCenterX = bounds.x + bounds.width / 2.0;
-            if (Math.abs(elementCenterX - otherCenterX) <= SNAP_TOLERANCE) {
-                adjustedX = otherCenterX - bounds.width / 2.0;
-                guideLines.add(createVerticalGuideLine(otherCenterX, bounds, otherBounds));
-            }
-            
-            // 水平对齐检查
-            // 顶边缘对齐
-            if (Math.abs(bounds.y - otherBounds.y) <= SNAP_TOLERANCE) {
-                adjustedY = otherBounds.y;
-                guideLines.add(createHorizontalGuideLine(otherBounds.y, bounds, otherBounds));
-            }
-            
-            // 底边缘对齐
-            if (Math.abs(bounds.y + bounds.height - (otherBounds.y + otherBounds.height)) <= SNAP_TOLERANCE) {
-                adjustedY = otherBounds.y + otherBounds.height - bounds.height;
-                guideLines.add(createHorizontalGuideLine(otherBounds.y + otherBounds.height, bounds, otherBounds));
-            }
-            
-            // 垂直中心对齐
-            double otherCenterY = otherBounds.y + otherBounds.height / 2.0;
-            double elementCenterY = bounds.y + bounds.height / 2.0;
-            if (Math.abs(elementCenterY - otherCenterY) <= SNAP_TOLERANCE) {
-                adjustedY = otherCenterY - bounds.height / 2.0;
-                guideLines.add(createHorizontalGuideLine(otherCenterY, bounds, otherBounds));
-            }
+        if (matchY != null) {
+            guideLines.add(createHorizontalGuideLine(matchY.getEdge(), draggedBounds));
         }
         
+        this.activeGuideLines = guideLines;
         return new AlignmentResult(adjustedX, adjustedY, guideLines);
     }
     
-    private AlignmentLine createVerticalGuideLine(double x, Rectangle bounds1, Rectangle bounds2) {
-        double minY = Math.min(Math.min(bounds1.y, bounds2.y), canvasArea.y);
-        double maxY = Math.max(Math.max(bounds1.y + bounds1.height, bounds2.y + bounds2.height), 
-                              canvasArea.y + canvasArea.height);
+    private AlignmentLine createVerticalGuideLine(double x, Rectangle bounds) {
+        double minY = Math.min(bounds.y, canvasArea.y);
+        double maxY = Math.max(bounds.y + bounds.height, canvasArea.y + canvasArea.height);
         return new AlignmentLine(x, minY, x, maxY, AlignmentType.VERTICAL);
     }
     
-    private AlignmentLine createHorizontalGuideLine(double y, Rectangle bounds1, Rectangle bounds2) {
-        double minX = Math.min(Math.min(bounds1.x, bounds2.x), canvasArea.x);
-        double maxX = Math.max(Math.max(bounds1.x + bounds1.width, bounds2.x + bounds2.width), 
-                              canvasArea.x + canvasArea.width);
+    private AlignmentLine createHorizontalGuideLine(double y, Rectangle bounds) {
+        double minX = Math.min(bounds.x, canvasArea.x);
+        double maxX = Math.max(bounds.x + bounds.width, canvasArea.x + canvasArea.width);
         return new AlignmentLine(minX, y, maxX, y, AlignmentType.HORIZONTAL);
     }
     
+    /**
+     * 当前对齐线覆盖的区域，用于局部重绘
+     */
+    public Rectangle getGuideBounds() {
+        Rectangle bounds = null;
+        for (AlignmentLine line : activeGuideLines) {
+            Rectangle lineBounds = new Line2D.Double(line.x1, line.y1, line.x2, line.y2).getBounds();
+            lineBounds.grow(2, 2);
+            if (bounds == null) {
+                bounds = lineBounds;
+            } else {
+                bounds.add(lineBounds);
+            }
+        }
+        return bounds;
+    }
+    
     /**
      * 绘制对齐线
      */
@@ -7,6 +7,7 @@ import com.ppteditor.core.io.PresentationFileManager;
 import com.ppteditor.core.io.PresentationExporter;
 import com.ppteditor.core.model.Slide;
 import com.ppteditor.core.model.IconElement;
+import com.ppteditor.core.model.ImageLoader;
 import com.ppteditor.core.model.SlideMaster;
 
 import javax.swing.*;
@@ -29,7 +30,9 @@ public class MainWindow extends JFrame {
     private JMenuBar menuBar;
     private JToolBar toolBar;
     private JPanel contentPanel;
+    private JPanel statusBar;
     private JLabel statusLabel;
+    private JLabel historyLabel;
     
     // 核心组件
     private CommandManager commandManager;
@@ -44,7 +47,7 @@ public class MainWindow extends JFrame {
     public MainWindow() {
         super(PPTEditorApplication.AppInfo.getFullName());
         
-        this.commandManager = CommandManager.getInstance();
+        this.commandManager = new CommandManager(); // 打开或新建文档后换成该文档的命令管理器
         this.exporter = new PresentationExporter();
         
         initializeUI();
@@ -81,7 +84,7 @@ public class MainWindow extends JFrame {
         setJMenuBar(menuBar);
         add(toolBar, BorderLayout.NORTH);
         add(contentPanel, BorderLayout.CENTER);
-        add(statusLabel, BorderLayout.SOUTH);
+        add(statusBar, BorderLayout.SOUTH);
     }
     
     private void createMenuBar() {
@@ -289,8 +292,9 @@ public class MainWindow extends JFrame {
         
         contentPanel.add(mainSplitPane, BorderLayout.CENTER);
         
-        // 设置CommandManager到SlideCanvas（确保使用同一个实例）
+        // 设置CommandManager到SlideCanvas和SlidePanel（确保使用同一个实例）
         slideCanvas.setCommandManager(commandManager);
+        slidePanel.setCommandManager(commandManager);
         
         // 设置事件处理
         setupComponentInteractions();
@@ -306,24 +310,70 @@ public class MainWindow extends JFrame {
 
         // 当幻灯片列表中选择的幻灯片变化时，更新所有相关组件
         slidePanel.setOnSlideSelected(index -> {
-            if (index >= 0 && index < currentPresentation.getSlides().size()) {
+            if (index >= 0 && index < currentPresentation.getTotalSlides()) {
                 currentPresentation.setCurrentSlideIndex(index);
                 Slide newSlide = currentPresentation.getCurrentSlide();
                 
                 slideCanvas.setSlide(newSlide);
+                prefetchAdjacentSlides();
                 
                 updateStatus("切换到: " + newSlide.getName());
             }
         });
     }
     
+    // 切换到当前文档的命令管理器，释放上一个文档的历史和撤销日志
+    private void attachCommandManager(Presentation previous) {
+        if (previous != null && previous != currentPresentation) {
+            CommandManager.release(previous);
+        }
+        commandManager = CommandManager.forPresentation(currentPresentation);
+        commandManager.setStatusCallback(this::updateStatus);
+        commandManager.setHistoryChangedCallback(this::updateHistoryStatus);
+        slideCanvas.setCommandManager(commandManager);
+        slidePanel.setCommandManager(commandManager);
+        applyHistorySize();
+        updateHistoryStatus();
+    }
+    
+    // 按文档设置撤销历史条数，并为新文档启用撤销日志（超出内存窗口的历史写入临时文件）
+    private void applyHistorySize() {
+        int size = currentPresentation.getUndoHistorySize();
+        commandManager.setMaxHistorySize(size > 0 ? size : CommandManager.DEFAULT_HISTORY_SIZE);
+        try {
+            commandManager.enableJournal(currentPresentation);
+        } catch (java.io.IOException e) {
+            // 无法创建临时文件时退回到只保留内存中的历史
+            commandManager.disableJournal();
+            commandManager.clearHistory();
+            System.err.println("无法创建撤销日志: " + e.getMessage());
+        }
+    }
+    
+    // 后台预取当前幻灯片及相邻幻灯片的图片
+    private void prefetchAdjacentSlides() {
+        ImageLoader.getInstance().prefetchAround(currentPresentation.getSlideView(),
+                                                 currentPresentation.getCurrentSlideIndex());
+    }
+    
     private void createStatusBar() {
         statusLabel = new JLabel("就绪");
         statusLabel.setBorder(BorderFactory.createLoweredBevelBorder());
         statusLabel.setPreferredSize(new Dimension(0, 25));
         
+        // 右侧显示撤销历史占用的内存
+        historyLabel = new JLabel();
+        historyLabel.setBorder(BorderFactory.createLoweredBevelBorder());
+        historyLabel.setPreferredSize(new Dimension(200, 25));
+        
+        statusBar = new JPanel(new BorderLayout());
+        statusBar.add(statusLabel, BorderLayout.CENTER);
+        statusBar.add(historyLabel, BorderLayout.EAST);
+        
         // 设置状态回调
         commandManager.setStatusCallback(this::updateStatus);
+        commandManager.setHistoryChangedCallback(this::updateHistoryStatus);
+        updateHistoryStatus();
     }
     
     private void setupEventHandlers() {
@@ -339,9 +389,12 @@ public class MainWindow extends JFrame {
     
     // 菜单动作方法
     private void newPresentation() {
+        Presentation previous = currentPresentation;
         currentPresentation = new Presentation("新建演示文稿");
+        attachCommandManager(previous);
         slidePanel.setPresentation(currentPresentation);
         slideCanvas.setSlide(currentPresentation.getCurrentSlide());
+        prefetchAdjacentSlides();
         updateStatus("创建新演示文稿");
     }
     
@@ -364,11 +417,14 @@ public class MainWindow extends JFrame {
         if (result == JFileChooser.APPROVE_OPTION) {
             File selectedFile = fileChooser.getSelectedFile();
             try {
+                Presentation previous = currentPresentation;
                 currentPresentation = PresentationFileManager.loadPresentation(selectedFile);
                 currentPresentation.setFilePath(selectedFile.getAbsolutePath());
                 currentPresentation.markAsSaved();
+                attachCommandManager(previous);
                 slidePanel.setPresentation(currentPresentation);
                 slideCanvas.setSlide(currentPresentation.getCurrentSlide());
+                prefetchAdjacentSlides();
                 updateStatus("打开演示文稿: " + selectedFile.getName());
                 setTitle(PPTEditorApplication.AppInfo.getFullName() + " - " + selectedFile.getName());
                 
@@ -660,7 +716,7 @@ public class MainWindow extends JFrame {
     }
     
     private void startPresentationMode() {
-        if (currentPresentation != null && !currentPresentation.getSlides().isEmpty()) {
+        if (currentPresentation != null && currentPresentation.getTotalSlides() > 0) {
             int selectedIndex = slidePanel.getSelectedIndex();
             if (selectedIndex < 0) {
                 selectedIndex = 0;
@@ -696,7 +752,7 @@ public class MainWindow extends JFrame {
                 JOptionPane.YES_NO_OPTION);
             
             if (choice == JOptionPane.YES_OPTION) {
-                newMaster.applyToAllSlides(currentPresentation.getSlides());
+                newMaster.applyToAllSlides(currentPresentation.getSlideView());
             }
             
             // 刷新界面
@@ -731,6 +787,24 @@ public class MainWindow extends JFrame {
         });
     }
     
+    private void updateHistoryStatus() {
+        long bytes = commandManager.getHistoryBytes();
+        int steps = commandManager.getUndoStackSize() + commandManager.getRedoStackSize();
+        int journaled = commandManager.getJournaledCount();
+        String text = String.format(" 撤销内存: %s / %s (%d步)", formatBytes(bytes),
+                                    formatBytes(commandManager.getMaxHistoryBytes()), steps)
+                      + (journaled > 0 ? String.format(" 磁盘: %d步", journaled) : "");
+        SwingUtilities.invokeLater(() -> {
+            historyLabel.setText(text);
+        });
+    }
+    
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+    
     /**
      * 根据窗口大小动态调整布局
      */
@@ -774,8 +848,8 @@ public class MainWindow extends JFrame {
      * 跳转到最后一页
      */
     public void goToLastSlide() {
-        if (currentPresentation != null && !currentPresentation.getSlides().isEmpty()) {
-            int lastIndex = currentPresentation.getSlides().size() - 1;
+        if (currentPresentation != null && currentPresentation.getTotalSlides() > 0) {
+            int lastIndex = currentPresentation.getTotalSlides() - 1;
             goToSlide(lastIndex);
         }
     }
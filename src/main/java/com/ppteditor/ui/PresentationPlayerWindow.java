@@ -1,5 +1,7 @@
 package com.ppteditor.ui;
 
+import com.ppteditor.core.model.ImageElement;
+import com.ppteditor.core.model.ImageLoader;
 import com.ppteditor.core.model.Presentation;
 import com.ppteditor.core.model.Slide;
 import com.ppteditor.core.model.SlideElement;
@@ -61,21 +63,35 @@ public class PresentationPlayerWindow extends JFrame {
         setBounds(0, 0, screenSize.width, screenSize.height);
         setLocationRelativeTo(null); 
         setVisible(true);
-        canvas.setCurrentSlide(presentation.getSlides().get(currentSlideIndex));
+        canvas.setCurrentSlide(presentation.getSlide(currentSlideIndex));
+        prefetchAdjacentSlides();
     }
 
     private void exitPresentation() {
         dispose();
     }
+    
+    // 标题栏关闭（DISPOSE_ON_CLOSE）也经过这里，注销后ImageLoader不再持有画布和演示文稿
+    @Override
+    public void dispose() {
+        ImageLoader.getInstance().removeImageLoadListener(canvas);
+        super.dispose();
+    }
+    
+    // 后台预取当前幻灯片及相邻幻灯片的图片，翻页时无需等待解码
+    private void prefetchAdjacentSlides() {
+        ImageLoader.getInstance().prefetchAround(presentation.getSlideView(), currentSlideIndex);
+    }
 
     private void nextSlide() {
-        if (currentSlideIndex < presentation.getSlides().size() - 1) {
-            Slide oldSlide = presentation.getSlides().get(currentSlideIndex);
+        if (currentSlideIndex < presentation.getTotalSlides() - 1) {
+            Slide oldSlide = presentation.getSlide(currentSlideIndex);
             currentSlideIndex++;
-            Slide newSlide = presentation.getSlides().get(currentSlideIndex);
+            Slide newSlide = presentation.getSlide(currentSlideIndex);
             AnimationType animationType = presentation.getTransitionAnimation();
             int duration = presentation.getTransitionDuration();
             canvas.playTransition(oldSlide, newSlide, animationType, duration);
+            prefetchAdjacentSlides();
         } else {
             exitPresentation();
         }
@@ -84,8 +100,9 @@ public class PresentationPlayerWindow extends JFrame {
     private void previousSlide() {
         if (currentSlideIndex > 0) {
             currentSlideIndex--;
-            Slide newSlide = presentation.getSlides().get(currentSlideIndex);
+            Slide newSlide = presentation.getSlide(currentSlideIndex);
             canvas.setCurrentSlide(newSlide);
+            prefetchAdjacentSlides();
         }
     }
     
@@ -95,11 +112,11 @@ public class PresentationPlayerWindow extends JFrame {
      * @return 如果点击了超链接并处理成功，返回true；否则返回false
      */
     private boolean handleHyperlinkClick(MouseEvent e) {
-        if (currentSlideIndex >= presentation.getSlides().size()) {
+        if (currentSlideIndex >= presentation.getTotalSlides()) {
             return false;
         }
         
-        Slide currentSlide = presentation.getSlides().get(currentSlideIndex);
+        Slide currentSlide = presentation.getSlide(currentSlideIndex);
         if (currentSlide == null) {
             return false;
         }
@@ -110,15 +127,13 @@ public class PresentationPlayerWindow extends JFrame {
             return false;
         }
         
-        // 检查是否点击了任何元素的超链接
-        for (SlideElement<?> element : currentSlide.getElements()) {
-            if (element instanceof TextElement) {
-                TextElement textElement = (TextElement) element;
-                String hyperlink = textElement.getHyperlinkAtPoint(slidePoint);
-                if (hyperlink != null && !hyperlink.trim().isEmpty()) {
-                    openHyperlink(hyperlink);
-                    return true;
-                }
+        // 检查点击位置最上层元素的超链接
+        SlideElement<?> element = currentSlide.findTopElementAt(slidePoint);
+        if (element instanceof TextElement) {
+            String hyperlink = ((TextElement) element).getHyperlinkAtPoint(slidePoint);
+            if (hyperlink != null && !hyperlink.trim().isEmpty()) {
+                openHyperlink(hyperlink);
+                return true;
             }
         }
         
@@ -160,6 +175,12 @@ public class PresentationPlayerWindow extends JFrame {
         try {
             System.out.println("打开超链接: " + hyperlink);
             
+            // 页面跳转链接在演示窗口内翻页
+            if (hyperlink.trim().startsWith("slide:")) {
+                goToLinkedSlide(hyperlink.trim().substring(6));
+                return;
+            }
+            
             // 确保URL格式正确
             String url = hyperlink;
             if (!url.startsWith("http://") && !url.startsWith("https://")) {
@@ -186,6 +207,22 @@ public class PresentationPlayerWindow extends JFrame {
         }
     }
     
+    /**
+     * 跳转到"slide:"链接指向的幻灯片，目标通过演示文稿的id索引解析
+     */
+    private void goToLinkedSlide(String target) {
+        int index = presentation.resolveSlideLink(target);
+        if (index < 0) {
+            System.err.println("无效的跳转目标: " + target);
+            return;
+        }
+        if (index != currentSlideIndex) {
+            currentSlideIndex = index;
+            canvas.setCurrentSlide(presentation.getSlide(currentSlideIndex));
+            prefetchAdjacentSlides();
+        }
+    }
+    
     /**
      * 显示超链接信息（当无法打开浏览器时）
      */
@@ -196,7 +233,7 @@ public class PresentationPlayerWindow extends JFrame {
             JOptionPane.INFORMATION_MESSAGE);
     }
 
-    private class PlayerCanvas extends JPanel {
+    private class PlayerCanvas extends JPanel implements ImageLoader.ImageLoadListener {
         private Slide currentSlide;
         private Timer animationTimer;
         private float animationProgress = 0f;
@@ -216,6 +253,15 @@ public class PresentationPlayerWindow extends JFrame {
                     handleMouseMove(e);
                 }
             });
+            ImageLoader.getInstance().addImageLoadListener(this);
+        }
+        
+        @Override
+        public void imageLoaded(ImageElement element) {
+            // 当前幻灯片的图片加载完成后重绘
+            if (currentSlide != null && currentSlide.containsElement(element)) {
+                repaint();
+            }
         }
 
         public void setCurrentSlide(Slide slide) {
@@ -419,17 +465,12 @@ public class PresentationPlayerWindow extends JFrame {
                 return;
             }
             
-            // 检查是否悬停在超链接上
+            // 检查是否悬停在最上层元素的超链接上
             boolean overHyperlink = false;
-            for (SlideElement<?> element : currentSlide.getElements()) {
-                if (element instanceof TextElement) {
-                    TextElement textElement = (TextElement) element;
-                    String hyperlink = textElement.getHyperlinkAtPoint(slidePoint);
-                    if (hyperlink != null && !hyperlink.trim().isEmpty()) {
-                        overHyperlink = true;
-                        break;
-                    }
-                }
+            SlideElement<?> element = currentSlide.findTopElementAt(slidePoint);
+            if (element instanceof TextElement) {
+                String hyperlink = ((TextElement) element).getHyperlinkAtPoint(slidePoint);
+                overHyperlink = hyperlink != null && !hyperlink.trim().isEmpty();
             }
             
             // 设置鼠标光标
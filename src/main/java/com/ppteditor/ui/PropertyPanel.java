@@ -20,6 +20,10 @@ public class PropertyPanel extends JPanel {
     private Set<SlideElement<?>> selectedElements;
     private Slide currentSlideContext; // Explicitly hold the slide context
     
+    // 跟随幻灯片选择模型的变化更新属性
+    private final SelectionModel.SelectionListener selectionListener =
+        (selection, added, removed) -> setSelectedElements(selection.getSelectedElements());
+    
     // 通用属性组件
     private JSpinner xSpinner;
     private JSpinner ySpinner;
@@ -428,7 +432,14 @@ public class PropertyPanel extends JPanel {
     }
     
     public void setSlideContext(Slide slide) {
+        if (currentSlideContext != null) {
+            currentSlideContext.getSelectionModel().removeSelectionListener(selectionListener);
+        }
         this.currentSlideContext = slide;
+        if (slide != null) {
+            slide.getSelectionModel().addSelectionListener(selectionListener);
+            setSelectedElements(slide.getSelectedElements());
+        }
         // If no element is selected, update the UI for the new slide context
         if (selectedElements == null || selectedElements.isEmpty()) {
             updateUIForSlide();
@@ -656,6 +667,7 @@ public class PropertyPanel extends JPanel {
             style.setItalic(italicButton.isSelected());
             style.setUnderline(underlineButton.isSelected());
             style.setTextColor(currentTextColor);
+            textElement.markContentChanged();
             
             notifyElementChanged();
         }
@@ -668,6 +680,7 @@ public class PropertyPanel extends JPanel {
             
             // 更新样式中的对齐方式
             style.setAlignment(alignment);
+            textElement.markContentChanged();
             
             // 更新按钮状态 - 只有被点击的按钮保持选中状态
             for (JToggleButton button : textAlignButtons) {
@@ -685,6 +698,7 @@ public class PropertyPanel extends JPanel {
             style.setFillColor(currentFillColor);
             style.setBorderColor(currentBorderColor);
             style.setBorderWidth((Float) borderWidthSpinner.getValue());
+            currentElement.markContentChanged();
             
             notifyElementChanged();
         }
@@ -113,6 +113,17 @@ public class SelectionHandle {
         return bounds;
     }
     
+    /**
+     * 计算一组控制点（含旋转控制点）覆盖的区域，用于局部重绘
+     */
+    public static Rectangle getHandleArea(Rectangle elementBounds) {
+        Rectangle area = new Rectangle(elementBounds);
+        area.grow(HANDLE_SIZE, HANDLE_SIZE);
+        area.add(new Point(elementBounds.x + elementBounds.width / 2,
+                           elementBounds.y - ROTATION_OFFSET - HANDLE_SIZE));
+        return area;
+    }
+    
     /**
      * 计算缩放操作
      */
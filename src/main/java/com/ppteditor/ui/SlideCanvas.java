@@ -8,6 +8,9 @@ import javax.swing.*;
 import javax.swing.filechooser.FileFilter;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.util.*;
 import java.util.List;
@@ -36,25 +39,52 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
     private Rectangle selectionRect;
     private Point selectionStart;
     
+    // 脏区域（幻灯片坐标），在一次事件处理中累积，处理结束后统一局部重绘
+    private Rectangle dirtyRegion;
+    
+    // 静态背景层（设备坐标）：背景、网格和底层母版元素，只在缩放、母版或背景变化时重建
+    private BufferedImage backgroundLayer;
+    private Slide backgroundLayerSlide;
+    private long backgroundLayerStamp;
+    private double backgroundLayerScaleX;
+    private double backgroundLayerScaleY;
+    private boolean backgroundLayerGrid;
+    // 背景层最大像素数（约为1200x800画布放大到2.5倍，ARGB约24MB），更大时不缓存，直接按裁剪区域绘制
+    private static final long MAX_BACKGROUND_LAYER_PIXELS = 6_000_000L;
+    
     // 缩放和旋转状态
     private SelectionHandle.HandleType activeHandle;
     private SelectionHandle activeSelectionHandle;
     private Rectangle originalBounds;
     private double originalRotation;
     private java.util.List<SelectionHandle> selectionHandles;
+    private Rectangle handleBounds; // 控制点对应的包围框，未变化时复用控制点
+    private boolean handlesForSingle;
+    
+    // 多选包围框样式
+    private static final Color MULTI_SELECTION_COLOR = new Color(100, 150, 255);
+    private static final Stroke MULTI_SELECTION_STROKE =
+        new BasicStroke(2, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, new float[]{5}, 0);
+    
+    // 监听当前幻灯片的选择变化
+    private final SelectionModel.SelectionListener selectionListener = this::selectionChanged;
     
     // 复制粘贴支持
     private java.util.List<SlideElement<?>> clipboard;
     
+    // 对齐辅助（拖拽时的吸附和对齐线）
+    private AlignmentGuide alignmentGuide;
+    
     // 回调接口
     private Runnable onSelectionChanged;
     private Runnable onContentChanged;
     private CommandManager commandManager;
     
     public SlideCanvas() {
-        this.commandManager = CommandManager.getInstance();
+        this.commandManager = new CommandManager(); // 关联文档前使用独立的命令管理器，见setCommandManager
         this.selectionHandles = new ArrayList<>();
         this.clipboard = new ArrayList<>();
+        this.alignmentGuide = new AlignmentGuide(new Rectangle(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT));
         
         setPreferredSize(new Dimension(CANVAS_WIDTH, CANVAS_HEIGHT));
         setBackground(Color.WHITE);
@@ -69,13 +99,51 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
         
         // 设置拖拽支持
         setTransferHandler(new CanvasTransferHandler());
+        
+        // 图片在后台加载完成后只重绘该元素所在区域
+        ImageLoader.getInstance().addImageLoadListener(this::repaintLoadedImage);
+    }
+    
+    private void repaintLoadedImage(ImageElement element) {
+        if (currentSlide == null || !currentSlide.containsElement(element)) {
+            return;
+        }
+        Rectangle bounds = element.getRenderBounds();
+        repaint((int) Math.floor(bounds.x * zoomLevel), (int) Math.floor(bounds.y * zoomLevel),
+                (int) Math.ceil(bounds.width * zoomLevel) + 1, (int) Math.ceil(bounds.height * zoomLevel) + 1);
     }
     
     public void setSlide(Slide slide) {
+        if (currentSlide != null) {
+            currentSlide.getSelectionModel().removeSelectionListener(selectionListener);
+        }
         this.currentSlide = slide;
+        if (slide != null) {
+            slide.getSelectionModel().addSelectionListener(selectionListener);
+        }
+        handleBounds = null;
         repaint();
     }
     
+    // 选择变化时只重绘变化的元素和新旧控制点区域
+    private void selectionChanged(SelectionModel selection, List<SlideElement<?>> added,
+                                  List<SlideElement<?>> removed) {
+        for (SlideElement<?> element : added) {
+            markDirty(element.getRenderBounds());
+        }
+        for (SlideElement<?> element : removed) {
+            markDirty(element.getRenderBounds());
+        }
+        if (handleBounds != null) {
+            markDirty(SelectionHandle.getHandleArea(handleBounds));
+        }
+        if (!selection.isEmpty()) {
+            markDirty(SelectionHandle.getHandleArea(selection.getBoundingBox()));
+        }
+        repaintDirtyRegion();
+        notifySelectionChanged();
+    }
+    
     public Slide getCurrentSlide() {
         return currentSlide;
     }
@@ -99,20 +167,20 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
         Graphics2D g2d = (Graphics2D) g.create();
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         
+        // 绘制静态背景层
+        drawBackgroundLayer(g2d);
+        
         // 应用缩放
         g2d.scale(zoomLevel, zoomLevel);
         
-        // 绘制网格
-        if (showGrid) {
-            drawGrid(g2d);
-        }
-        
-        // 绘制幻灯片内容
+        // 绘制交互层元素
         if (currentSlide != null) {
-            Dimension slideSize = new Dimension(CANVAS_WIDTH, CANVAS_HEIGHT);
-            currentSlide.render(g2d, slideSize);
+            currentSlide.renderInteractiveElements(g2d);
         }
         
+        // 绘制对齐线
+        alignmentGuide.renderGuideLines(g2d);
+        
         // 绘制选择框
         if (selectionRect != null) {
             g2d.setColor(new Color(100, 150, 255, 100));
@@ -128,18 +196,95 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
         g2d.dispose();
     }
     
+    /**
+     * 绘制静态背景层，缓存失效时先重建
+     */
+    private void drawBackgroundLayer(Graphics2D g2d) {
+        AffineTransform deviceTransform = g2d.getTransform();
+        double scaleX = deviceTransform.getScaleX() * zoomLevel;
+        double scaleY = deviceTransform.getScaleY() * zoomLevel;
+        long stamp = currentSlide != null ? currentSlide.getStaticLayerStamp() : 0;
+        
+        int width = Math.max(1, (int) Math.ceil(CANVAS_WIDTH * scaleX));
+        int height = Math.max(1, (int) Math.ceil(CANVAS_HEIGHT * scaleY));
+        if ((long) width * height > MAX_BACKGROUND_LAYER_PIXELS) {
+            // 高缩放下整张背景层过大，释放缓存，只绘制可见部分
+            backgroundLayer = null;
+            backgroundLayerSlide = null;
+            Graphics2D directG2d = (Graphics2D) g2d.create();
+            directG2d.scale(zoomLevel, zoomLevel);
+            paintStaticLayer(directG2d);
+            directG2d.dispose();
+            return;
+        }
+        
+        if (backgroundLayer == null || backgroundLayerSlide != currentSlide || backgroundLayerStamp != stamp ||
+            backgroundLayerScaleX != scaleX || backgroundLayerScaleY != scaleY || backgroundLayerGrid != showGrid) {
+            rebuildBackgroundLayer(g2d, width, height, scaleX, scaleY);
+            backgroundLayerSlide = currentSlide;
+            backgroundLayerStamp = stamp;
+            backgroundLayerScaleX = scaleX;
+            backgroundLayerScaleY = scaleY;
+            backgroundLayerGrid = showGrid;
+        }
+        
+        // 按设备像素对齐绘制
+        Point2D origin = deviceTransform.transform(new Point2D.Double(0, 0), null);
+        g2d.setTransform(new AffineTransform());
+        g2d.drawImage(backgroundLayer, (int) Math.round(origin.getX()), (int) Math.round(origin.getY()), null);
+        g2d.setTransform(deviceTransform);
+    }
+    
+    private void rebuildBackgroundLayer(Graphics2D g2d, int width, int height, double scaleX, double scaleY) {
+        if (backgroundLayer == null || backgroundLayer.getWidth() != width || backgroundLayer.getHeight() != height) {
+            backgroundLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        
+        Graphics2D layerG2d = backgroundLayer.createGraphics();
+        layerG2d.setComposite(AlphaComposite.Clear);
+        layerG2d.fillRect(0, 0, width, height);
+        layerG2d.setComposite(AlphaComposite.SrcOver);
+        layerG2d.setRenderingHints(g2d.getRenderingHints());
+        layerG2d.scale(scaleX, scaleY);
+        paintStaticLayer(layerG2d);
+        layerG2d.dispose();
+    }
+    
+    // 背景、网格和底层母版元素（幻灯片坐标）
+    private void paintStaticLayer(Graphics2D g2d) {
+        if (currentSlide != null) {
+            currentSlide.renderBackground(g2d, new Dimension(CANVAS_WIDTH, CANVAS_HEIGHT));
+        }
+        if (showGrid) {
+            drawGrid(g2d);
+        }
+        if (currentSlide != null) {
+            currentSlide.renderStaticElements(g2d);
+        }
+    }
+    
     private void drawGrid(Graphics2D g2d) {
         g2d.setColor(new Color(200, 200, 200, 100));
         g2d.setStroke(new BasicStroke(0.5f));
         
+        // 只绘制裁剪区域内的网格线
+        Rectangle clip = g2d.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+        }
+        int startX = Math.max(0, clip.x / GRID_SIZE * GRID_SIZE);
+        int endX = Math.min(CANVAS_WIDTH, clip.x + clip.width);
+        int startY = Math.max(0, clip.y / GRID_SIZE * GRID_SIZE);
+        int endY = Math.min(CANVAS_HEIGHT, clip.y + clip.height);
+        
         // 绘制垂直线
-        for (int x = 0; x <= CANVAS_WIDTH; x += GRID_SIZE) {
-            g2d.drawLine(x, 0, x, CANVAS_HEIGHT);
+        for (int x = startX; x <= endX; x += GRID_SIZE) {
+            g2d.drawLine(x, startY, x, endY);
         }
         
         // 绘制水平线
-        for (int y = 0; y <= CANVAS_HEIGHT; y += GRID_SIZE) {
-            g2d.drawLine(0, y, CANVAS_WIDTH, y);
+        for (int y = startY; y <= endY; y += GRID_SIZE) {
+            g2d.drawLine(startX, y, endX, y);
         }
     }
     
@@ -158,7 +303,6 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
         
         // 选中新创建的元素
         currentSlide.selectElement(element);
-        notifySelectionChanged();
         notifyContentChanged();
         repaint();
     }
@@ -175,7 +319,6 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
         commandManager.executeCommand(command);
         
         currentSlide.selectElement(element);
-        notifySelectionChanged();
         notifyContentChanged();
         repaint();
     }
@@ -192,7 +335,6 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
         commandManager.executeCommand(command);
         
         currentSlide.selectElement(element);
-        notifySelectionChanged();
         notifyContentChanged();
         repaint();
     }
@@ -252,7 +394,6 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
                 commandManager.executeCommand(command);
                 
                 currentSlide.selectElement(element);
-                notifySelectionChanged();
                 notifyContentChanged();
                 repaint();
                 
@@ -277,7 +418,6 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
         commandManager.executeCommand(command);
         
         currentSlide.selectElement(element);
-        notifySelectionChanged();
         notifyContentChanged();
         repaint();
     }
@@ -290,7 +430,6 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
             new ArrayList<>(currentSlide.getSelectedElements()));
         commandManager.executeCommand(command);
         
-        notifySelectionChanged();
         notifyContentChanged();
         repaint();
     }
@@ -319,11 +458,10 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
         AddElementCommand command = new AddElementCommand(currentSlide, pastedElements);
         commandManager.executeCommand(command);
         
-        currentSlide.clearSelection();
-        pastedElements.forEach(currentSlide::addToSelection);
+        currentSlide.setSelection(pastedElements);
         
-        notifySelectionChanged();
         notifyContentChanged();
+        repaint();
     }
     
     // 对齐功能
@@ -381,12 +519,14 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
             activeHandle = handle.getType();
             isDragging = true;
             dragStartPoint = p;
-            originalBounds = calculateBoundingBox(currentSlide.getSelectedElements());
-            if (!currentSlide.getSelectedElements().isEmpty()) {
-                originalRotation = currentSlide.getSelectedElements().iterator().next().getRotation();
+            SelectionModel selection = currentSlide.getSelectionModel();
+            originalBounds = selection.getBoundingBox();
+            if (!selection.isEmpty()) {
+                originalRotation = selection.getFirst().getRotation();
             }
             return;
         }
+        markSelectionDirty();
         draggedElement = findTopmostElementAt(p);
         if (draggedElement != null) {
             isDragging = true;
@@ -402,15 +542,17 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
             } else if (e.isControlDown()) {
                 currentSlide.addToSelection(draggedElement);
             }
-            notifySelectionChanged();
+            if (draggedElement != null && !snapToGrid) {
+                beginAlignment();
+            }
         } else {
             // Clicked on empty canvas space
             currentSlide.clearSelection();
-            notifySelectionChanged();
             selectionStart = p;
             selectionRect = new Rectangle(p.x, p.y, 0, 0);
         }
-        repaint();
+        markSelectionDirty();
+        repaintDirtyRegion();
     }
     
     @Override
@@ -419,8 +561,10 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
         Point point = scalePoint(e.getPoint());
         if (activeHandle != null) {
             // 处理缩放和旋转操作
+            markSelectionDirty();
             handleScaleRotateOperation(point);
-            repaint();
+            markSelectionDirty();
+            repaintDirtyRegion();
         } else if (draggedElement != null && dragStartPoint != null) {
             // 拖拽元素
             isDragging = true;
@@ -439,6 +583,7 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
                 newY = alignedPos.y;
             }
             // 如果是多选，移动所有选中元素
+            markSelectionDirty();
             Set<SlideElement<?>> selected = currentSlide.getSelectedElements();
             if (selected.size() > 1) {
                 double moveX = newX - draggedElement.getX();
@@ -450,28 +595,37 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
                 }
             }
             draggedElement.setPosition(newX, newY);
-            repaint();
+            markSelectionDirty();
+            repaintDirtyRegion();
         } else if (selectionStart != null) {
             // 框选
             int x = Math.min(selectionStart.x, point.x);
             int y = Math.min(selectionStart.y, point.y);
             int width = Math.abs(point.x - selectionStart.x);
             int height = Math.abs(point.y - selectionStart.y);
+            markSelectionRectDirty();
+            markSelectionDirty();
             selectionRect = new Rectangle(x, y, width, height);
             // 选择矩形内的元素
+            // 选择模型只通知实际变化的元素
             List<SlideElement<?>> elementsInRect = currentSlide.findElementsInArea(selectionRect);
-            if (!e.isControlDown()) {
-                currentSlide.clearSelection();
-            }
-            for (SlideElement<?> element : elementsInRect) {
-                currentSlide.addToSelection(element);
+            if (e.isControlDown()) {
+                currentSlide.getSelectionModel().addAll(elementsInRect);
+            } else {
+                currentSlide.setSelection(elementsInRect);
             }
-            repaint();
+            markSelectionRectDirty();
+            markSelectionDirty();
+            repaintDirtyRegion();
         }
     }
     
     @Override
     public void mouseReleased(MouseEvent e) {
+        markSelectionRectDirty();
+        markSelectionDirty();
+        markDirty(alignmentGuide.getGuideBounds());
+        alignmentGuide.endDrag();
         if (activeHandle != null) {
             // 缩放/旋转操作完成，创建命令
             Set<SlideElement<?>> selected = currentSlide.getSelectedElements();
@@ -499,6 +653,8 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
                 commandManager.executeCommand(command);
             }
         }
+        // 一次拖动是一个独立的操作，不与之后的命令合并
+        commandManager.endMerge();
         // 清理状态
         draggedElement = null;
         dragStartPoint = null;
@@ -507,7 +663,8 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
         selectionStart = null;
         selectionRect = null;
         notifyContentChanged();
-        repaint();
+        markSelectionDirty();
+        repaintDirtyRegion();
     }
     
     // 内联文本编辑相关字段
@@ -519,9 +676,8 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
     public void mouseClicked(MouseEvent e) {
         if (currentSlide == null) return;
         Point point = scalePoint(e.getPoint());
-        List<SlideElement<?>> elements = currentSlide.findElementsAt(point);
-        if (!elements.isEmpty()) {
-            SlideElement<?> clickedElement = elements.get(0);
+        SlideElement<?> clickedElement = currentSlide.findTopElementAt(point);
+        if (clickedElement != null) {
             // 单击处理超链接
             if (e.getClickCount() == 1) {
                 String hyperlink = null;
@@ -617,6 +773,7 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
                 // 执行编辑命令
                 EditTextCommand command = new EditTextCommand(editingTextElement, oldText, newText);
                 commandManager.executeCommand(command);
+                commandManager.endMerge();
             }
             
             // 清理编辑器
@@ -688,7 +845,11 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
             String newText = textArea.getText();
             if (!newText.equals(textElement.getText())) {
                 EditTextCommand command = new EditTextCommand(textElement, textElement.getText(), newText);
+                // 文本变化可能改变元素的绘制范围，标记修改前后两个区域
+                markDirty(textElement.getRenderBounds());
                 commandManager.executeCommand(command);
+                commandManager.endMerge(); // 每次在对话框中确认的编辑单独撤销
+                markDirty(textElement.getRenderBounds());
                 notifyContentChanged();
             }
             dialog.dispose();
@@ -771,26 +932,18 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
             Window parentWindow = SwingUtilities.getWindowAncestor(this);
             if (parentWindow instanceof MainWindow) {
                 MainWindow mainWindow = (MainWindow) parentWindow;
-                
-                if (target.equals("first")) {
-                    // 跳转到第一页
-                    mainWindow.goToSlide(0);
-                    showHyperlinkStatus("已跳转到第一页");
-                } else if (target.equals("last")) {
-                    // 跳转到最后一页
-                    mainWindow.goToLastSlide();
-                    showHyperlinkStatus("已跳转到最后一页");
-                } else {
-                    // 跳转到指定页面
-                    int slideNumber = Integer.parseInt(target);
-                    mainWindow.goToSlide(slideNumber - 1); // 转换为0基索引
-                    showHyperlinkStatus("已跳转到第" + slideNumber + "页");
+                Presentation presentation = mainWindow.getCurrentPresentation();
+                // 页码、first/last以及幻灯片或元素id都通过演示文稿的id索引解析
+                int index = presentation != null ? presentation.resolveSlideLink(target) : -1;
+                if (index < 0) {
+                    showHyperlinkStatus("无效的跳转目标: " + target);
+                    return;
                 }
+                mainWindow.goToSlide(index);
+                showHyperlinkStatus("已跳转到第" + (index + 1) + "页");
             } else {
                 showHyperlinkStatus("无法在当前环境中执行页面跳转");
             }
-        } catch (NumberFormatException e) {
-            showHyperlinkStatus("无效的页面编号: " + target);
         } catch (Exception e) {
             showHyperlinkStatus("页面跳转失败: " + e.getMessage());
         }
@@ -881,10 +1034,9 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
         // 更新鼠标样式
         if (currentSlide != null) {
             Point point = scalePoint(e.getPoint());
-            List<SlideElement<?>> elements = currentSlide.findElementsAt(point);
+            SlideElement<?> element = currentSlide.findTopElementAt(point);
             
-            if (!elements.isEmpty()) {
-                SlideElement<?> element = elements.get(0);
+            if (element != null) {
                 boolean hasHyperlink = false;
                 
                 // 检查文本片段超链接
@@ -952,17 +1104,29 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
                     deltaX *= GRID_SIZE;
                     deltaY *= GRID_SIZE;
                 }
-                for (SlideElement<?> element : currentSlide.getSelectedElements()) {
-                    element.move(deltaX, deltaY);
-                }
+                markSelectionDirty();
+                // 按住方向键时的连续微调由CommandManager合并为一条历史记录
+                commandManager.executeCommand(
+                    new MoveElementsCommand(currentSlide.getSelectedElements(), deltaX, deltaY));
+                markSelectionDirty();
                 notifyContentChanged();
-                repaint();
+                repaintDirtyRegion();
             }
         }
     }
     
     @Override
-    public void keyReleased(KeyEvent e) {}
+    public void keyReleased(KeyEvent e) {
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_LEFT:
+            case KeyEvent.VK_RIGHT:
+            case KeyEvent.VK_UP:
+            case KeyEvent.VK_DOWN:
+                // 松开方向键后下一次微调单独成为一条历史记录
+                commandManager.endMerge();
+                break;
+        }
+    }
     
     @Override
     public void keyTyped(KeyEvent e) {}
@@ -978,11 +1142,58 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
         }
     }
     
+    // 内容变化后同时重绘已标记的脏区域，调用方只需在修改前后标记变化的区域
     private void notifyContentChanged() {
         if (onContentChanged != null) {
             onContentChanged.run();
         }
-        repaint();
+        repaintDirtyRegion();
+    }
+    
+    /**
+     * 将幻灯片坐标下的区域加入脏区域
+     */
+    private void markDirty(Rectangle area) {
+        if (area == null) return;
+        if (dirtyRegion == null) {
+            dirtyRegion = new Rectangle(area);
+        } else {
+            dirtyRegion.add(area);
+        }
+    }
+    
+    /**
+     * 标记选中元素及其选择框、控制点所在区域为脏区域
+     * 在修改选中元素之前和之后各调用一次，即可覆盖旧位置和新位置
+     */
+    private void markSelectionDirty() {
+        if (currentSlide == null || !currentSlide.hasSelection()) return;
+        for (SlideElement<?> element : currentSlide.getSelectedElements()) {
+            markDirty(element.getRenderBounds());
+        }
+        markDirty(SelectionHandle.getHandleArea(currentSlide.getSelectionModel().getBoundingBox()));
+    }
+    
+    private void markSelectionRectDirty() {
+        if (selectionRect != null) {
+            Rectangle area = new Rectangle(selectionRect);
+            area.grow(2, 2);
+            markDirty(area);
+        }
+    }
+    
+    /**
+     * 按缩放比例换算到组件坐标，仅重绘累积的脏区域
+     */
+    private void repaintDirtyRegion() {
+        if (dirtyRegion == null) return;
+        Rectangle area = dirtyRegion;
+        dirtyRegion = null;
+        int x = (int) Math.floor(area.x * zoomLevel) - 1;
+        int y = (int) Math.floor(area.y * zoomLevel) - 1;
+        int right = (int) Math.ceil((area.x + area.width) * zoomLevel) + 1;
+        int bottom = (int) Math.ceil((area.y + area.height) * zoomLevel) + 1;
+        repaint(x, y, right - x, bottom - y);
     }
     
     // Getter和Setter
@@ -1022,29 +1233,47 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
     public boolean isSnapToGrid() { return snapToGrid; }
     public void setSnapToGrid(boolean snapToGrid) { this.snapToGrid = snapToGrid; }
     
+    /**
+     * 当前幻灯片选中元素的只读视图
+     */
     public Set<SlideElement<?>> getSelectedElements() {
         if (currentSlide != null) {
             return currentSlide.getSelectedElements();
         }
-        return new HashSet<>();
+        return Collections.emptySet();
     }
     
     // 绘制选择控制点
     private void drawSelectionHandles(Graphics2D g2d) {
         if (currentSlide == null || !currentSlide.hasSelection()) {
             selectionHandles.clear();
+            handleBounds = null;
             return;
         }
         
-        Set<SlideElement<?>> selected = currentSlide.getSelectedElements();
-        if (selected.size() == 1) {
-            // 单选：显示完整的缩放旋转控制点
-            SlideElement<?> element = selected.iterator().next();
-            Rectangle bounds = element.getBounds();
-            
-            selectionHandles.clear();
-            
-            // 添加8个缩放控制点
+        SelectionModel selection = currentSlide.getSelectionModel();
+        Rectangle boundingBox = selection.getBoundingBox();
+        boolean single = selection.size() == 1;
+        // 选择或包围框未变化时复用控制点
+        if (!boundingBox.equals(handleBounds) || single != handlesForSingle) {
+            rebuildSelectionHandles(boundingBox, single);
+        }
+        
+        if (!single) {
+            // 多选：显示包围框
+            g2d.setColor(MULTI_SELECTION_COLOR);
+            g2d.setStroke(MULTI_SELECTION_STROKE);
+            g2d.drawRect(boundingBox.x, boundingBox.y, boundingBox.width, boundingBox.height);
+        }
+        for (SelectionHandle handle : selectionHandles) {
+            handle.render(g2d);
+        }
+    }
+    
+    private void rebuildSelectionHandles(Rectangle bounds, boolean single) {
+        selectionHandles.clear();
+        if (single) {
+            // 单选：8个缩放控制点和旋转控制点
             selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.TOP_LEFT, bounds));
             selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.TOP_CENTER, bounds));
             selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.TOP_RIGHT, bounds));
@@ -1053,52 +1282,16 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
             selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.BOTTOM_LEFT, bounds));
             selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.BOTTOM_CENTER, bounds));
             selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.BOTTOM_RIGHT, bounds));
-            
-            // 添加旋转控制点
             selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.ROTATION, bounds));
-            
-            // 绘制所有控制点
-            for (SelectionHandle handle : selectionHandles) {
-                handle.render(g2d);
-            }
-        } else if (selected.size() > 1) {
-            // 多选：只显示包围框
-            Rectangle boundingBox = calculateBoundingBox(selected);
-            g2d.setColor(new Color(100, 150, 255));
-            g2d.setStroke(new BasicStroke(2, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, new float[]{5}, 0));
-            g2d.drawRect(boundingBox.x, boundingBox.y, boundingBox.width, boundingBox.height);
-            
-            // 显示四角控制点用于多选缩放
-            selectionHandles.clear();
-            selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.TOP_LEFT, boundingBox));
-            selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.TOP_RIGHT, boundingBox));
-            selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.BOTTOM_LEFT, boundingBox));
-            selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.BOTTOM_RIGHT, boundingBox));
-            
-            for (SelectionHandle handle : selectionHandles) {
-                handle.render(g2d);
-            }
-        }
-    }
-    
-    // 计算多个元素的包围框
-    private Rectangle calculateBoundingBox(Set<SlideElement<?>> elements) {
-        if (elements.isEmpty()) return new Rectangle();
-        
-        int minX = Integer.MAX_VALUE;
-        int minY = Integer.MAX_VALUE;
-        int maxX = Integer.MIN_VALUE;
-        int maxY = Integer.MIN_VALUE;
-        
-        for (SlideElement<?> element : elements) {
-            Rectangle bounds = element.getBounds();
-            minX = Math.min(minX, bounds.x);
-            minY = Math.min(minY, bounds.y);
-            maxX = Math.max(maxX, bounds.x + bounds.width);
-            maxY = Math.max(maxY, bounds.y + bounds.height);
+        } else {
+            // 多选：四角控制点用于整体缩放
+            selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.TOP_LEFT, bounds));
+            selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.TOP_RIGHT, bounds));
+            selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.BOTTOM_LEFT, bounds));
+            selectionHandles.add(new SelectionHandle(SelectionHandle.HandleType.BOTTOM_RIGHT, bounds));
         }
-        
-        return new Rectangle(minX, minY, maxX - minX, maxY - minY);
+        handleBounds = bounds;
+        handlesForSingle = single;
     }
     
     // 检查鼠标是否在选择控制点上
@@ -1172,67 +1365,22 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
     }
     
     // 自动对齐和吸附功能
-    private Point findAlignmentPosition(double newX, double newY, SlideElement<?> draggedElement) {
-        final double SNAP_DISTANCE = 5; // 吸附距离阈值
-        double alignedX = newX;
-        double alignedY = newY;
-        // 获取当前元素的边界
-        double elementLeft = newX;
-        double elementRight = newX + draggedElement.getWidth();
-        double elementTop = newY;
-        double elementBottom = newY + draggedElement.getHeight();
-        double elementCenterX = newX + draggedElement.getWidth() / 2;
-        double elementCenterY = newY + draggedElement.getHeight() / 2;
-        // 检查与其他元素的对齐
-        for (SlideElement<?> element : currentSlide.getElements()) {
-            if (element == draggedElement || element.isSelected()) continue;
-            double otherLeft = element.getX();
-            double otherRight = element.getX() + element.getWidth();
-            double otherTop = element.getY();
-            double otherBottom = element.getY() + element.getHeight();
-            double otherCenterX = element.getX() + element.getWidth() / 2;
-            double otherCenterY = element.getY() + element.getHeight() / 2;
-            // 检查水平对齐
-            if (Math.abs(elementLeft - otherLeft) <= SNAP_DISTANCE) {
-                alignedX = otherLeft; // 左边对齐
-            } else if (Math.abs(elementRight - otherRight) <= SNAP_DISTANCE) {
-                alignedX = otherRight - draggedElement.getWidth(); // 右边对齐
-            } else if (Math.abs(elementCenterX - otherCenterX) <= SNAP_DISTANCE) {
-                alignedX = otherCenterX - draggedElement.getWidth() / 2; // 中心对齐
-            } else if (Math.abs(elementLeft - otherRight) <= SNAP_DISTANCE) {
-                alignedX = otherRight; // 左边贴右边
-            } else if (Math.abs(elementRight - otherLeft) <= SNAP_DISTANCE) {
-                alignedX = otherLeft - draggedElement.getWidth(); // 右边贴左边
+    private void beginAlignment() {
+        // 参与吸附的元素：除被拖拽元素和选中元素之外的所有元素
+        List<SlideElement<?>> others = new ArrayList<>();
+        currentSlide.forEachElement(element -> {
+            if (element != draggedElement && !element.isSelected()) {
+                others.add(element);
             }
-            // 检查垂直对齐
-            if (Math.abs(elementTop - otherTop) <= SNAP_DISTANCE) {
-                alignedY = otherTop; // 顶部对齐
-            } else if (Math.abs(elementBottom - otherBottom) <= SNAP_DISTANCE) {
-                alignedY = otherBottom - draggedElement.getHeight(); // 底部对齐
-            } else if (Math.abs(elementCenterY - otherCenterY) <= SNAP_DISTANCE) {
-                alignedY = otherCenterY - draggedElement.getHeight() / 2; // 中心对齐
-            } else if (Math.abs(elementTop - otherBottom) <= SNAP_DISTANCE) {
-                alignedY = otherBottom; // 顶部贴底部
-            } else if (Math.abs(elementBottom - otherTop) <= SNAP_DISTANCE) {
-                alignedY = otherTop - draggedElement.getHeight(); // 底部贴顶部
-            }
-        }
-        // 检查与画布边界的对齐
-        if (Math.abs(elementLeft) <= SNAP_DISTANCE) {
-            alignedX = 0; // 左边界对齐
-        } else if (Math.abs(elementRight - CANVAS_WIDTH) <= SNAP_DISTANCE) {
-            alignedX = CANVAS_WIDTH - draggedElement.getWidth(); // 右边界对齐
-        } else if (Math.abs(elementCenterX - CANVAS_WIDTH / 2) <= SNAP_DISTANCE) {
-            alignedX = (CANVAS_WIDTH - draggedElement.getWidth()) / 2; // 画布中心对齐
-        }
-        if (Math.abs(elementTop) <= SNAP_DISTANCE) {
-            alignedY = 0; // 顶部边界对齐
-        } else if (Math.abs(elementBottom - CANVAS_HEIGHT) <= SNAP_DISTANCE) {
-            alignedY = CANVAS_HEIGHT - draggedElement.getHeight(); // 底部边界对齐
-        } else if (Math.abs(elementCenterY - CANVAS_HEIGHT / 2) <= SNAP_DISTANCE) {
-            alignedY = (CANVAS_HEIGHT - draggedElement.getHeight()) / 2; // 画布中心对齐
-        }
-        return new Point((int)alignedX, (int)alignedY);
+        });
+        alignmentGuide.beginDrag(others);
+    }
+    
+    private Point findAlignmentPosition(double newX, double newY, SlideElement<?> draggedElement) {
+        markDirty(alignmentGuide.getGuideBounds());
+        AlignmentGuide.AlignmentResult result = alignmentGuide.calculateAlignment(draggedElement, newX, newY);
+        markDirty(alignmentGuide.getGuideBounds());
+        return new Point((int) result.getAdjustedX(), (int) result.getAdjustedY());
     }
     
     /**
@@ -1271,7 +1419,6 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
                 
                 // 选中新创建的元素
                 currentSlide.selectElement(newElement);
-                notifySelectionChanged();
                 notifyContentChanged();
                 repaint();
                 
@@ -1286,6 +1433,6 @@ public class SlideCanvas extends JPanel implements MouseListener, MouseMotionLis
     
     private SlideElement<?> findTopmostElementAt(Point p) {
         if (currentSlide == null) return null;
-        return currentSlide.findElementsAt(p).stream().findFirst().orElse(null);
+        return currentSlide.findTopElementAt(p);
     }
 } 
\ No newline at end of file
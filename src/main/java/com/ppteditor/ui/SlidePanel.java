@@ -8,6 +8,8 @@ import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -31,8 +33,11 @@ public class SlidePanel extends JPanel {
     private boolean isDragging = false;
     private Point dragStartPoint;
     
+    // 缩略图缓存，幻灯片版本未变化时直接复用
+    private final Map<Slide, Thumbnail> thumbnails = new WeakHashMap<>();
+    
     public SlidePanel() {
-        this.commandManager = CommandManager.getInstance();
+        this.commandManager = new CommandManager(); // 关联文档前使用独立的命令管理器，见setCommandManager
         this.listModel = new DefaultListModel<>();
         
         initializeUI();
@@ -51,6 +56,13 @@ public class SlidePanel extends JPanel {
         slideList.setCellRenderer(new SlideCellRenderer());
         slideList.setFixedCellHeight(ITEM_HEIGHT);
         
+        // 图片在后台加载完成后刷新缩略图
+        // 解码完成不改变模型版本，需要单独丢弃包含该图片的缩略图
+        ImageLoader.getInstance().addImageLoadListener(element -> {
+            thumbnails.keySet().removeIf(slide -> slide.containsElement(element));
+            slideList.repaint();
+        });
+        
         // 创建工具栏
         JToolBar toolBar = createToolBar();
         
@@ -172,6 +184,10 @@ public class SlidePanel extends JPanel {
         menu.show(slideList, point.x, point.y);
     }
     
+    public void setCommandManager(CommandManager commandManager) {
+        this.commandManager = commandManager;
+    }
+    
     public void setPresentation(Presentation presentation) {
         this.presentation = presentation;
         updateSlideList();
@@ -184,9 +200,7 @@ public class SlidePanel extends JPanel {
             
             // 2. Clear and repopulate the model
             listModel.clear();
-            for (Slide slide : presentation.getSlides()) {
-                listModel.addElement(slide);
-            }
+            presentation.forEachSlide(listModel::addElement);
             
             // 3. Restore the selection
             if (selectedIndex >= 0 && selectedIndex < listModel.getSize()) {
@@ -323,8 +337,8 @@ public class SlidePanel extends JPanel {
                     panel.setBorder(BorderFactory.createEmptyBorder(2, 2, 2, 2));
                 }
                 
-                // 创建缩略图
-                BufferedImage thumbnail = createThumbnail(slide);
+                // 取得缩略图，幻灯片自上次生成后没有修改时复用
+                BufferedImage thumbnail = getThumbnail(slide);
                 JLabel imageLabel = new JLabel(new ImageIcon(thumbnail));
                 
                 // 根据状态设置边框
@@ -353,6 +367,17 @@ public class SlidePanel extends JPanel {
             return super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
         }
         
+        private BufferedImage getThumbnail(Slide slide) {
+            Thumbnail cached = thumbnails.get(slide);
+            if (cached != null && !slide.isChangedSince(cached.version)) {
+                return cached.image;
+            }
+            long version = ModelVersion.current();
+            BufferedImage image = createThumbnail(slide);
+            thumbnails.put(slide, new Thumbnail(image, version));
+            return image;
+        }
+        
         private BufferedImage createThumbnail(Slide slide) {
             BufferedImage image = new BufferedImage(THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT, BufferedImage.TYPE_INT_RGB);
             Graphics2D g2d = image.createGraphics();
@@ -365,9 +390,9 @@ public class SlidePanel extends JPanel {
                 double scaleY = (double) THUMBNAIL_HEIGHT / SlideCanvas.CANVAS_HEIGHT;
                 g2d.scale(scaleX, scaleY);
                 
-                // 渲染幻灯片
+                // 渲染幻灯片内容，不含选中框，缩略图只随模型版本变化
                 Dimension slideSize = new Dimension(SlideCanvas.CANVAS_WIDTH, SlideCanvas.CANVAS_HEIGHT);
-                slide.render(g2d, slideSize);
+                slide.renderContent(g2d, slideSize);
                 
             } finally {
                 g2d.dispose();
@@ -376,4 +401,14 @@ public class SlidePanel extends JPanel {
             return image;
         }
     }
-} 
\ No newline at end of file
+    
+    private static class Thumbnail {
+        final BufferedImage image;
+        final long version; // 生成缩略图前的ModelVersion时钟值
+        
+        Thumbnail(BufferedImage image, long version) {
+            this.image = image;
+            this.version = version;
+        }
+    }
+}
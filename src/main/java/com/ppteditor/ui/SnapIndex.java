@@ -0,0 +1,123 @@
+package com.ppteditor.ui;
+
+import com.ppteditor.core.model.SlideElement;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 吸附索引
+ * 拖拽开始时把其他元素和画布的左/右/中心线、上/下/中心线分别整理成有序数组，
+ * 拖拽过程中每次只需在容差范围内二分查找，不再遍历所有元素
+ */
+public class SnapIndex {
+
+    private final double[] xEdges;
+    private final double[] yEdges;
+
+    public SnapIndex(Collection<SlideElement<?>> elements, Rectangle canvasArea) {
+        int count = elements.size() + 1;
+        double[] xs = new double[count * 3];
+        double[] ys = new double[count * 3];
+        int n = 0;
+
+        // 画布边界和中心线
+        n = putEdges(xs, ys, n, canvasArea.x, canvasArea.y, canvasArea.width, canvasArea.height);
+        for (SlideElement<?> element : elements) {
+            n = putEdges(xs, ys, n, element.getX(), element.getY(), element.getWidth(), element.getHeight());
+        }
+
+        this.xEdges = sortedUnique(xs, n);
+        this.yEdges = sortedUnique(ys, n);
+    }
+
+    private static int putEdges(double[] xs, double[] ys, int n, double x, double y, double width, double height) {
+        xs[n] = x;
+        xs[n + 1] = x + width / 2;
+        xs[n + 2] = x + width;
+        ys[n] = y;
+        ys[n + 1] = y + height / 2;
+        ys[n + 2] = y + height;
+        return n + 3;
+    }
+
+    private static double[] sortedUnique(double[] values, int length) {
+        Arrays.sort(values, 0, length);
+        int unique = 0;
+        for (int i = 0; i < length; i++) {
+            if (unique == 0 || values[i] != values[unique - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, unique);
+    }
+
+    /**
+     * 水平方向吸附
+     * @param start 元素左边位置
+     * @param size 元素宽度
+     * @return 吸附结果，容差范围内没有可吸附的边时返回null
+     */
+    public SnapMatch snapX(double start, double size, double tolerance) {
+        return snap(xEdges, start, size, tolerance);
+    }
+
+    /**
+     * 垂直方向吸附
+     */
+    public SnapMatch snapY(double start, double size, double tolerance) {
+        return snap(yEdges, start, size, tolerance);
+    }
+
+    // 元素的起始边、中心线和结束边分别查找最近的候选边，取距离最小者
+    private static SnapMatch snap(double[] edges, double start, double size, double tolerance) {
+        double bestDelta = Double.NaN;
+        double bestEdge = 0;
+        for (int k = 0; k <= 2; k++) {
+            double value = start + size * k / 2;
+            for (int i = lowerBound(edges, value - tolerance); i < edges.length && edges[i] <= value + tolerance; i++) {
+                double delta = edges[i] - value;
+                if (Double.isNaN(bestDelta) || Math.abs(delta) < Math.abs(bestDelta)) {
+                    bestDelta = delta;
+                    bestEdge = edges[i];
+                }
+            }
+        }
+        return Double.isNaN(bestDelta) ? null : new SnapMatch(start + bestDelta, bestEdge);
+    }
+
+    // 第一个不小于value的位置
+    private static int lowerBound(double[] edges, double value) {
+        int low = 0;
+        int high = edges.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (edges[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int getEdgeCount() {
+        return xEdges.length + yEdges.length;
+    }
+
+    /**
+     * 吸附结果：调整后的起始位置和对齐线所在坐标
+     */
+    public static class SnapMatch {
+        private final double adjustedStart;
+        private final double edge;
+
+        public SnapMatch(double adjustedStart, double edge) {
+            this.adjustedStart = adjustedStart;
+            this.edge = edge;
+        }
+
+        public double getAdjustedStart() { return adjustedStart; }
+        public double getEdge() { return edge; }
+    }
+}
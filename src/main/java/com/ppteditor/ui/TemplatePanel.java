@@ -262,10 +262,7 @@ public class TemplatePanel extends JPanel {
             presentation.applyColorTheme(theme);
             
             // 统计应用的元素数量
-            int totalElements = 0;
-            for (Slide slide : presentation.getSlides()) {
-                totalElements += slide.getElements().size();
-            }
+            int totalElements = presentation.getTotalElements();
             
             // 强制刷新界面
             mainWindow.refreshCanvas();
@@ -0,0 +1,88 @@
+package com.ppteditor.core.command;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CommandManager内存预算测试
+ */
+class CommandManagerTest {
+
+    private static final long BUDGET = 1000;
+    private static final int SMALL_STEPS = 20;
+
+    /**
+     * 撤销一条大命令后，它在重做栈中的占用不应挤掉撤销历史
+     */
+    @Test
+    void undoingLargeCommandKeepsUndoHistory() {
+        CommandManager manager = new CommandManager();
+        manager.setMaxHistoryBytes(BUDGET);
+        for (int i = 0; i < SMALL_STEPS; i++) {
+            manager.executeCommand(new SizedCommand(16, 16));
+        }
+        // 类似插入图片：元素在文档中时占用很小，撤销后命令独自持有图片
+        manager.executeCommand(new SizedCommand(16, 900));
+        assertEquals(SMALL_STEPS + 1, manager.getUndoStackSize());
+
+        assertTrue(manager.undo());
+
+        assertEquals(SMALL_STEPS, manager.getUndoStackSize());
+        assertTrue(manager.getHistoryBytes() <= BUDGET);
+    }
+
+    /**
+     * 预算足够时撤销的命令保留在重做栈中
+     */
+    @Test
+    void redoIsKeptWithinBudget() {
+        CommandManager manager = new CommandManager();
+        manager.setMaxHistoryBytes(BUDGET);
+        for (int i = 0; i < SMALL_STEPS; i++) {
+            manager.executeCommand(new SizedCommand(16, 16));
+        }
+        manager.executeCommand(new SizedCommand(16, 400));
+
+        assertTrue(manager.undo());
+
+        assertEquals(SMALL_STEPS, manager.getUndoStackSize());
+        assertEquals(1, manager.getRedoStackSize());
+        assertTrue(manager.redo());
+        assertEquals(SMALL_STEPS + 1, manager.getUndoStackSize());
+    }
+
+    /**
+     * 已执行和已撤销时估算占用不同的命令
+     */
+    private static class SizedCommand implements Command {
+        private final long executedBytes;
+        private final long undoneBytes;
+        private boolean undone;
+
+        SizedCommand(long executedBytes, long undoneBytes) {
+            this.executedBytes = executedBytes;
+            this.undoneBytes = undoneBytes;
+        }
+
+        @Override
+        public void execute() {
+            undone = false;
+        }
+
+        @Override
+        public void undo() {
+            undone = true;
+        }
+
+        @Override
+        public String getDescription() {
+            return "测试命令";
+        }
+
+        @Override
+        public long estimateRetainedBytes() {
+            return undone ? undoneBytes : executedBytes;
+        }
+    }
+}